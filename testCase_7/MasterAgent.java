@@ -8,7 +8,7 @@ import java.util.*;
 
 public class MasterAgent extends Agent {
     public static DeliveryGUI gui;
-    private Map<String, PackageInfo> availablePackages = new LinkedHashMap<>();
+    private PackageIndex availablePackages = new PackageIndex();
     private Map<String, PackageInfo> offeredPackages = new HashMap<>();
     private int agentCount = 3;
     private Set<String> readyAgents = new HashSet<>();
@@ -166,14 +166,7 @@ public class MasterAgent extends Agent {
     }
 
     private PackageInfo findBestPackage(int currentLoad, int capacity, int currentItems, int maxItems) {
-        for (PackageInfo pkg : availablePackages.values()) {
-            if ((currentLoad + pkg.weight <= capacity) && (currentItems + 1 <= maxItems)) {
-                return pkg;
-            }
-        }
-        return availablePackages.values().stream()
-                .min(Comparator.comparingInt(p -> p.weight))
-                .orElse(null);
+        return availablePackages.findBest(currentLoad, capacity, currentItems, maxItems);
     }
 
     private void handlePackagePickup(ACLMessage msg) {
@@ -200,7 +193,7 @@ public class MasterAgent extends Agent {
         synchronized (availablePackages) {
             PackageInfo pkg = offeredPackages.remove(packageName);
             if (pkg != null) {
-                availablePackages.put(packageName, pkg);
+                availablePackages.put(pkg);
                 gui.addMessage("❌ OFFER REJECTED → " + packageName + " returned to pool | Remaining: " + availablePackages.size());
             }
         }
@@ -292,7 +285,7 @@ public class MasterAgent extends Agent {
 
     private void createPackage(String name, int travelTime, int weight) {
         PackageInfo pkg = new PackageInfo(name, travelTime, weight);
-        availablePackages.put(name, pkg);
+        availablePackages.put(pkg);
         gui.addMasterPackage(name, travelTime, weight);
     }
 
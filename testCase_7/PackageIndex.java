@@ -0,0 +1,98 @@
+package testCase_8;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Available packages of the MasterAgent, indexed by weight.
+ *
+ * Each weight keeps its packages in arrival order. findBest() only looks at
+ * the weights that still fit the agent (a headMap of the weight tree) and
+ * compares the queue heads, instead of scanning the whole pool on every request.
+ *
+ * Not thread-safe: the MasterAgent guards it with synchronized (availablePackages).
+ */
+class PackageIndex {
+
+    private static class Slot {
+        final MasterAgent.PackageInfo pkg;
+        final long sequence;
+
+        Slot(MasterAgent.PackageInfo pkg, long sequence) {
+            this.pkg = pkg;
+            this.sequence = sequence;
+        }
+    }
+
+    private final Map<String, Slot> byName = new HashMap<>();
+    private final TreeMap<Integer, LinkedHashMap<String, Slot>> byWeight = new TreeMap<>();
+    private long nextSequence;
+
+    /**
+     * Adds the package at the back of its queue. A package with the same
+     * name and queue is replaced in place and keeps its turn, like
+     * LinkedHashMap.put; if its queue changed it moves to the back.
+     */
+    void put(MasterAgent.PackageInfo pkg) {
+        Slot old = byName.get(pkg.name);
+        if (old != null && old.pkg.weight == pkg.weight) {
+            Slot slot = new Slot(pkg, old.sequence);
+            byName.put(pkg.name, slot);
+            byWeight.get(pkg.weight).put(pkg.name, slot);
+            return;
+        }
+        remove(pkg.name);
+        Slot slot = new Slot(pkg, nextSequence++);
+        byName.put(pkg.name, slot);
+        byWeight.computeIfAbsent(pkg.weight, w -> new LinkedHashMap<>()).put(pkg.name, slot);
+    }
+
+    MasterAgent.PackageInfo get(String name) {
+        Slot slot = byName.get(name);
+        return slot == null ? null : slot.pkg;
+    }
+
+    MasterAgent.PackageInfo remove(String name) {
+        Slot slot = byName.remove(name);
+        if (slot == null) {
+            return null;
+        }
+        LinkedHashMap<String, Slot> queue = byWeight.get(slot.pkg.weight);
+        queue.remove(name);
+        if (queue.isEmpty()) {
+            byWeight.remove(slot.pkg.weight);
+        }
+        return slot.pkg;
+    }
+
+    int size() {
+        return byName.size();
+    }
+
+    /**
+     * The earliest package that fits the remaining weight and item count.
+     * If nothing fits, the lightest package (earliest among equals), so the
+     * agent can negotiate.
+     *
+     * @return null only if the pool is empty
+     */
+    MasterAgent.PackageInfo findBest(int currentLoad, int capacity, int currentItems, int maxItems) {
+        if (currentItems + 1 <= maxItems) {
+            Slot best = null;
+            for (LinkedHashMap<String, Slot> queue : byWeight.headMap(capacity - currentLoad, true).values()) {
+                Slot head = queue.values().iterator().next();
+                if (best == null || head.sequence < best.sequence) {
+                    best = head;
+                }
+            }
+            if (best != null) {
+                return best.pkg;
+            }
+        }
+
+        Map.Entry<Integer, LinkedHashMap<String, Slot>> lightest = byWeight.firstEntry();
+        return lightest == null ? null : lightest.getValue().values().iterator().next().pkg;
+    }
+}
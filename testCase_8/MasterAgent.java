@@ -8,7 +8,7 @@ import java.util.*;
 
 public class MasterAgent extends Agent {
     public static DeliveryGUI gui;
-    private Map<String, PackageInfo> availablePackages = new LinkedHashMap<>();
+    private PackageIndex availablePackages = new PackageIndex();
     private Map<String, PackageInfo> offeredPackages = new HashMap<>();
     private int agentCount = 3;
     private Set<String> readyAgents = new HashSet<>();
@@ -168,13 +168,7 @@ public class MasterAgent extends Agent {
     }
 
     private PackageInfo findBestPackage(int currentLoad, int capacity, int currentItems, int maxItems) {
-        return availablePackages.values().stream()
-                .filter(pkg -> (currentLoad + pkg.weight <= capacity) && (currentItems + 1 <= maxItems))
-                .sorted(Comparator.comparing((PackageInfo p) -> p.priority ? 0 : 1))
-                .findFirst()
-                .orElse(availablePackages.values().stream()
-                        .min(Comparator.comparingInt(p -> p.weight))
-                        .orElse(null));
+        return availablePackages.findBest(currentLoad, capacity, currentItems, maxItems);
     }
 
     private void handlePackagePickup(ACLMessage msg) {
@@ -201,7 +195,7 @@ public class MasterAgent extends Agent {
         synchronized (availablePackages) {
             PackageInfo pkg = offeredPackages.remove(packageName);
             if (pkg != null) {
-                availablePackages.put(packageName, pkg);
+                availablePackages.put(pkg);
                 gui.addMessage("OFFER REJECTED -> " + packageName + " returned to pool | Remaining: " + availablePackages.size());
             }
         }
@@ -298,7 +292,7 @@ public class MasterAgent extends Agent {
             int weight = 4 + (int)(Math.random()*6);
 
             PackageInfo pkg = new PackageInfo(name, travelTime, weight, true);
-            availablePackages.put(name, pkg);
+            availablePackages.put(pkg);
             gui.addMasterPackage(name, travelTime, weight, true);
 
             gui.addMessage("Created PRIORITY package " + name +
@@ -316,7 +310,7 @@ public class MasterAgent extends Agent {
 
     private void createPackage(String name, int travelTime, int weight) {
         PackageInfo pkg = new PackageInfo(name, travelTime, weight, false);
-        availablePackages.put(name, pkg);
+        availablePackages.put(pkg);
         gui.addMasterPackage(name, travelTime, weight, false);
     }
 
@@ -0,0 +1,136 @@
+package testCase_9;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Available packages of the MasterAgent, indexed by weight.
+ *
+ * Each weight has two queues in arrival order, one for priority packages
+ * and one for the others. findBest() only looks at the weights that still
+ * fit the agent (a headMap of the weight tree) and compares the queue heads,
+ * instead of filtering and sorting the whole pool on every request.
+ *
+ * Not thread-safe: the MasterAgent guards it with synchronized (availablePackages).
+ */
+class PackageIndex {
+
+    private static class Slot {
+        final MasterAgent.PackageInfo pkg;
+        final long sequence;
+
+        Slot(MasterAgent.PackageInfo pkg, long sequence) {
+            this.pkg = pkg;
+            this.sequence = sequence;
+        }
+    }
+
+    private static class WeightBucket {
+        final LinkedHashMap<String, Slot> priority = new LinkedHashMap<>();
+        final LinkedHashMap<String, Slot> normal = new LinkedHashMap<>();
+
+        Map<String, Slot> queueFor(MasterAgent.PackageInfo pkg) {
+            return pkg.priority ? priority : normal;
+        }
+
+        boolean isEmpty() {
+            return priority.isEmpty() && normal.isEmpty();
+        }
+    }
+
+    private final Map<String, Slot> byName = new HashMap<>();
+    private final TreeMap<Integer, WeightBucket> byWeight = new TreeMap<>();
+    private long nextSequence;
+
+    /**
+     * Adds the package at the back of its queue. A package with the same
+     * name and queue is replaced in place and keeps its turn, like
+     * LinkedHashMap.put; if its queue changed it moves to the back.
+     */
+    void put(MasterAgent.PackageInfo pkg) {
+        Slot old = byName.get(pkg.name);
+        if (old != null && old.pkg.weight == pkg.weight && old.pkg.priority == pkg.priority) {
+            Slot slot = new Slot(pkg, old.sequence);
+            byName.put(pkg.name, slot);
+            byWeight.get(pkg.weight).queueFor(pkg).put(pkg.name, slot);
+            return;
+        }
+        remove(pkg.name);
+        Slot slot = new Slot(pkg, nextSequence++);
+        byName.put(pkg.name, slot);
+        byWeight.computeIfAbsent(pkg.weight, w -> new WeightBucket()).queueFor(pkg).put(pkg.name, slot);
+    }
+
+    MasterAgent.PackageInfo get(String name) {
+        Slot slot = byName.get(name);
+        return slot == null ? null : slot.pkg;
+    }
+
+    MasterAgent.PackageInfo remove(String name) {
+        Slot slot = byName.remove(name);
+        if (slot == null) {
+            return null;
+        }
+        WeightBucket bucket = byWeight.get(slot.pkg.weight);
+        bucket.queueFor(slot.pkg).remove(name);
+        if (bucket.isEmpty()) {
+            byWeight.remove(slot.pkg.weight);
+        }
+        return slot.pkg;
+    }
+
+    int size() {
+        return byName.size();
+    }
+
+    /**
+     * The earliest priority package that fits the remaining weight and item
+     * count, else the earliest other package that fits. If nothing fits, the
+     * lightest package (earliest among equals), so the agent can negotiate.
+     *
+     * @return null only if the pool is empty
+     */
+    MasterAgent.PackageInfo findBest(int currentLoad, int capacity, int currentItems, int maxItems) {
+        if (currentItems + 1 <= maxItems) {
+            NavigableMap<Integer, WeightBucket> fitting = byWeight.headMap(capacity - currentLoad, true);
+            Slot best = earliest(fitting, true);
+            if (best == null) {
+                best = earliest(fitting, false);
+            }
+            if (best != null) {
+                return best.pkg;
+            }
+        }
+
+        Map.Entry<Integer, WeightBucket> lightest = byWeight.firstEntry();
+        if (lightest == null) {
+            return null;
+        }
+        return earlier(head(lightest.getValue().priority), head(lightest.getValue().normal)).pkg;
+    }
+
+    private static Slot earliest(NavigableMap<Integer, WeightBucket> buckets, boolean priority) {
+        Slot best = null;
+        for (WeightBucket bucket : buckets.values()) {
+            best = earlier(best, head(priority ? bucket.priority : bucket.normal));
+        }
+        return best;
+    }
+
+    private static Slot head(LinkedHashMap<String, Slot> queue) {
+        return queue.isEmpty() ? null : queue.values().iterator().next();
+    }
+
+    private static Slot earlier(Slot a, Slot b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return a.sequence <= b.sequence ? a : b;
+    }
+}
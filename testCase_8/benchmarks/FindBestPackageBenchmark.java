@@ -0,0 +1,72 @@
+package testCase_9;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PackageIndex.findBest (MasterAgent.findBestPackage) over a package backlog, for requests from
+ * agentCount agents with different loads (weights and travel times as in
+ * createNewPackages, one priority package in twenty).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindBestPackageBenchmark {
+
+    private static final int MAX_ITEMS = 3;
+
+    @Param({"3", "100"})
+    int agentCount;
+
+    @Param({"12", "200", "2000"})
+    int packageBacklog;
+
+    private PackageIndex availablePackages;
+    private int[] loads;
+    private int[] capacities;
+    private int[] items;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+
+        availablePackages = new PackageIndex();
+        for (int p = 0; p < packageBacklog; p++) {
+            int travelTime = 2 + random.nextInt(5);
+            int weight = 3 + random.nextInt(7);
+            availablePackages.put(new MasterAgent.PackageInfo("P" + p, travelTime, weight, random.nextInt(20) == 0));
+        }
+
+        loads = new int[agentCount];
+        capacities = new int[agentCount];
+        items = new int[agentCount];
+        for (int a = 0; a < agentCount; a++) {
+            capacities[a] = 15 + random.nextInt(6);
+            items[a] = random.nextInt(MAX_ITEMS);
+            loads[a] = Math.min(capacities[a], items[a] * (3 + random.nextInt(7)));
+        }
+    }
+
+    @Benchmark
+    public MasterAgent.PackageInfo findBestPackage() {
+        int a = next;
+        next = (next + 1) % agentCount;
+        return availablePackages.findBest(loads[a], capacities[a], items[a], MAX_ITEMS);
+    }
+}
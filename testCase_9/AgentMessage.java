@@ -0,0 +1,105 @@
+package testCase_3;
+
+import java.util.List;
+
+/**
+ * AgentMessage.java
+ *
+ * Typed content of every ACL message exchanged by MasterAgent and DeliveryAgent.
+ * Encoded and decoded by MessageCodec.
+ *
+ * Performative / record mapping:
+ * - CFP              Master -> Agent   Cfp, or CfpBundle (batch auction)
+ * - PROPOSE          Agent -> Master   Bid, or BidBundle (batch auction)
+ * - ACCEPT_PROPOSAL  Master -> Agent   Award (auction won), or AwardBundle (batch win / solver route)
+ * - AGREE            Agent -> Agent    Award (traded package, remaining time)
+ * - QUERY_REF        Agent -> Master   TradeQuery
+ * - INFORM           Master -> Agent   TradeOpportunities (ranked, best first)
+ * - PROPOSE          Agent -> Agent    TradeOffer
+ * - CONFIRM / INFORM Agent -> Master   DeliveryReport (pickup / trade handover)
+ * - INFORM           Agent -> Master   DeliveryReport (conversation id TRADE_REFUSED, trade not done)
+ * - INFORM           Agent -> Master   AgentStatus (conversation id AGENT_STATUS)
+ * - REFUSE           Agent -> Master   no content, declines the CFP with the same conversation id
+ */
+public sealed interface AgentMessage {
+
+    /**
+     * @param deliveryTime - Seconds from the depot straight to the destination
+     * @param location - Destination node in the DeliveryMap
+     */
+    record Cfp(String packageName, int deliveryTime, String type, int urgencyScore, int location)
+            implements AgentMessage {
+    }
+
+    record Bid(String packageName, int bidScore, int priority, long timestamp) implements AgentMessage {
+    }
+
+    /**
+     * Every package of a batch auction in one call for proposals
+     */
+    record CfpBundle(List<Cfp> packages) implements AgentMessage {
+    }
+
+    /**
+     * One bid per package of a batch auction
+     *
+     * @param freeSlots - Packages the agent can still take
+     */
+    record BidBundle(List<Bid> bids, int freeSlots) implements AgentMessage {
+    }
+
+    /**
+     * @param deliveryTime - Seconds to the destination: from the depot when
+     *                       auctioned, along the route when planned by the
+     *                       solver or traded
+     * @param location - Destination node in the DeliveryMap
+     */
+    record Award(String packageName, int deliveryTime, String type, int location) implements AgentMessage {
+    }
+
+    /**
+     * Every package an agent won in a batch auction, or a whole route
+     * planned by the Master's VrpSolver with stops in visiting order
+     */
+    record AwardBundle(List<Award> stops) implements AgentMessage {
+    }
+
+    record TradeQuery(int priority, int load) implements AgentMessage {
+    }
+
+    record TradeOffer(String packageName, int priority, int load) implements AgentMessage {
+    }
+
+    /**
+     * @param fromAgent - Previous carrier, or empty when picked up at the depot
+     * @param toAgent - New carrier
+     */
+    record DeliveryReport(String packageName, String fromAgent, String toAgent) implements AgentMessage {
+
+        boolean isTrade() {
+            return !fromAgent.isEmpty();
+        }
+    }
+
+    /**
+     * Pushed to the Master whenever the agent's state or load changes
+     *
+     * @param timeToMaster - Seconds until back at the depot
+     */
+    record AgentStatus(String state, int load, int capacity, int timeToMaster) implements AgentMessage {
+
+        /**
+         * Same conditions DeliveryAgent checks before bidding
+         */
+        boolean canBid() {
+            return load < capacity && timeToMaster == 0 && !"DELIVERING".equals(state);
+        }
+    }
+
+    /**
+     * @param agents - Current carrier of each tradeable package
+     * @param packages - Tradeable package names, same order as agents
+     */
+    record TradeOpportunities(List<String> agents, List<String> packages) implements AgentMessage {
+    }
+}
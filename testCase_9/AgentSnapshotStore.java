@@ -0,0 +1,96 @@
+package testCase_3;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AgentSnapshotStore.java
+ *
+ * Latest status of every delivery agent, shared between agent threads and
+ * the GUI.
+ *
+ * - Agents publish() a full status; the store keeps one immutable Snapshot
+ *   per agent and bumps its version only when something changed
+ * - The GUI pulls changedSince() once per frame and renders only agents
+ *   whose version moved, so GUI cost does not grow with the tick rate
+ * - Each snapshot carries the agent's recent distinct states, so a state
+ *   that starts and ends between two frames still shows up in the history
+ *
+ * publish() never blocks on the GUI; each agent only writes its own entry.
+ */
+public class AgentSnapshotStore {
+
+    public static final int STATE_HISTORY_SIZE = 4;
+
+    /**
+     * Consistent status of one agent at one version
+     *
+     * @param recentStates - Last STATE_HISTORY_SIZE distinct states, oldest first
+     */
+    public record Snapshot(String displayName, long version, String state, String packages,
+                           int load, int capacity, int timeToMaster, int deliveryTime,
+                           List<String> recentStates) {
+
+        boolean sameStatus(String state, String packages, int load, int capacity,
+                           int timeToMaster, int deliveryTime) {
+            return this.state.equals(state) && Objects.equals(this.packages, packages)
+                    && this.load == load && this.capacity == capacity
+                    && this.timeToMaster == timeToMaster && this.deliveryTime == deliveryTime;
+        }
+    }
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Called from agent threads
+     */
+    public void publish(String displayName, String state, String packages, int load, int capacity,
+                        int timeToMaster, int deliveryTime) {
+        snapshots.compute(displayName, (name, previous) -> {
+            if (previous == null) {
+                return new Snapshot(name, 1, state, packages, load, capacity, timeToMaster, deliveryTime,
+                        List.of(state));
+            }
+            if (previous.sameStatus(state, packages, load, capacity, timeToMaster, deliveryTime)) {
+                return previous;
+            }
+            return new Snapshot(name, previous.version() + 1, state, packages, load, capacity,
+                    timeToMaster, deliveryTime, withState(previous.recentStates(), state));
+        });
+    }
+
+    private static List<String> withState(List<String> recent, String state) {
+        if (recent.get(recent.size() - 1).equals(state)) {
+            return recent;
+        }
+        List<String> next = new ArrayList<>(STATE_HISTORY_SIZE);
+        next.addAll(recent.size() < STATE_HISTORY_SIZE ? recent : recent.subList(1, recent.size()));
+        next.add(state);
+        return List.copyOf(next);
+    }
+
+    /**
+     * Snapshots newer than the versions the caller has rendered; the
+     * caller's map is advanced to the returned versions
+     *
+     * @param renderedVersions - Agent -> last rendered version, owned by the caller
+     */
+    public List<Snapshot> changedSince(Map<String, Long> renderedVersions) {
+        List<Snapshot> changed = new ArrayList<>();
+        for (Snapshot snapshot : snapshots.values()) {
+            Long rendered = renderedVersions.get(snapshot.displayName());
+            if (rendered == null || rendered < snapshot.version()) {
+                renderedVersions.put(snapshot.displayName(), snapshot.version());
+                changed.add(snapshot);
+            }
+        }
+        return changed;
+    }
+
+    public Snapshot get(String displayName) {
+        return snapshots.get(displayName);
+    }
+}
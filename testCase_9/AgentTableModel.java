@@ -0,0 +1,218 @@
+package testCase_3;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * AgentTableModel.java
+ *
+ * One row per delivery agent for the agent status table.
+ *
+ * Updates only change the row and mark it dirty. Once per frame the dirty
+ * rows are reported with a single fireTableRowsUpdated, so the sorter
+ * re-sorts and the table repaints at most FRAME_MS apart however many
+ * agents changed.
+ *
+ * All methods must be called on the EDT.
+ */
+public class AgentTableModel extends AbstractTableModel {
+
+    public static final int COL_AGENT = 0;
+    public static final int COL_PRIORITY = 1;
+    public static final int COL_STATE = 2;
+    public static final int COL_LOAD = 3;
+    public static final int COL_PACKAGES = 4;
+    public static final int COL_TIME_TO_MASTER = 5;
+    public static final int COL_DELIVERY_TIME = 6;
+    public static final int COL_RECENT = 7;
+
+    private static final String[] COLUMN_NAMES = {
+            "Agent", "Priority", "State", "Load", "Packages", "Time to Master", "Delivery Time", "Recent"
+    };
+
+    private static final int FRAME_MS = 33;  // ~30 frames per second
+    private static final Pattern PRIORITY = Pattern.compile("P:(\\d+)");
+    private static final Pattern CAPACITY = Pattern.compile("Cap:(\\d+)");
+
+    /**
+     * Live status of one agent
+     */
+    static class AgentRow {
+        final String displayName;
+        final int priority;
+        String state = "IDLE";
+        String packages;
+        int load;
+        int capacity;
+        int timeToMaster;
+        int deliveryTime;
+        // Last AgentSnapshotStore.STATE_HISTORY_SIZE distinct states, oldest first
+        final Deque<String> history = new ArrayDeque<>();
+
+        AgentRow(String displayName, int priority, int capacity) {
+            this.displayName = displayName;
+            this.priority = priority;
+            this.capacity = capacity;
+        }
+    }
+
+    private final List<AgentRow> rows = new ArrayList<>();
+    private final Map<String, Integer> rowOf = new HashMap<>();
+
+    // Dirty row range since the last frame, -1 when clean
+    private int firstDirty = -1;
+    private int lastDirty = -1;
+    private final Timer frameTimer;
+
+    public AgentTableModel() {
+        frameTimer = new Timer(FRAME_MS, e -> flush());
+        frameTimer.setRepeats(false);
+    }
+
+    /**
+     * @param displayName - e.g. "Agent1 (P:5, Cap:2)"; priority and capacity are read from it
+     */
+    public void addAgent(String displayName) {
+        assert SwingUtilities.isEventDispatchThread() : "Must be called on EDT";
+
+        if (rowOf.containsKey(displayName)) {
+            return;
+        }
+        AgentRow row = new AgentRow(displayName, parse(PRIORITY, displayName), parse(CAPACITY, displayName));
+
+        int index = rows.size();
+        rows.add(row);
+        rowOf.put(displayName, index);
+        fireTableRowsInserted(index, index);
+    }
+
+    private static int parse(Pattern pattern, String displayName) {
+        Matcher matcher = pattern.matcher(displayName);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+    }
+
+    /**
+     * Take over a whole agent snapshot, including its recent states; an
+     * agent not registered yet gets its row here
+     */
+    public void apply(AgentSnapshotStore.Snapshot snapshot) {
+        addAgent(snapshot.displayName());
+        AgentRow row = row(snapshot.displayName());
+        row.state = snapshot.state();
+        row.packages = snapshot.packages() == null || snapshot.packages().isEmpty() ? null : snapshot.packages();
+        row.load = snapshot.load();
+        row.capacity = snapshot.capacity();
+        row.timeToMaster = snapshot.timeToMaster();
+        row.deliveryTime = snapshot.deliveryTime();
+        row.history.clear();
+        row.history.addAll(snapshot.recentStates());
+        markDirty(snapshot.displayName());
+    }
+
+    AgentRow rowAt(int modelIndex) {
+        return rows.get(modelIndex);
+    }
+
+    private AgentRow row(String displayName) {
+        assert SwingUtilities.isEventDispatchThread() : "Must be called on EDT";
+
+        Integer index = rowOf.get(displayName);
+        return index == null ? null : rows.get(index);
+    }
+
+    private void markDirty(String displayName) {
+        int index = rowOf.get(displayName);
+        if (firstDirty < 0) {
+            firstDirty = index;
+            lastDirty = index;
+            frameTimer.start();
+        } else {
+            firstDirty = Math.min(firstDirty, index);
+            lastDirty = Math.max(lastDirty, index);
+        }
+    }
+
+    /**
+     * Report every row changed since the last frame in one event. Runs from
+     * the frame timer, or directly by a caller that already paces itself.
+     */
+    public void flush() {
+        assert SwingUtilities.isEventDispatchThread() : "Must be called on EDT";
+
+        frameTimer.stop();
+        if (firstDirty < 0) {
+            return;
+        }
+        int first = firstDirty;
+        int last = lastDirty;
+        firstDirty = -1;
+        lastDirty = -1;
+        fireTableRowsUpdated(first, last);
+    }
+
+    // ============================================================
+    // TABLE MODEL
+    // ============================================================
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case COL_PRIORITY:
+            case COL_LOAD:
+            case COL_TIME_TO_MASTER:
+            case COL_DELIVERY_TIME:
+                return Integer.class;
+            default:
+                return String.class;
+        }
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int column) {
+        AgentRow row = rows.get(rowIndex);
+        switch (column) {
+            case COL_AGENT:
+                return row.displayName;
+            case COL_PRIORITY:
+                return row.priority;
+            case COL_STATE:
+                return row.state;
+            case COL_LOAD:
+                return row.load;
+            case COL_PACKAGES:
+                return row.packages == null ? "None" : row.packages;
+            case COL_TIME_TO_MASTER:
+                return row.timeToMaster;
+            case COL_DELIVERY_TIME:
+                return row.deliveryTime;
+            case COL_RECENT:
+                return row.history.isEmpty() ? "-" : String.join(" > ", row.history);
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package testCase_3;
+
+import java.util.Arrays;
+
+/**
+ * AssignmentSolver.java
+ *
+ * Maximum-weight bipartite assignment (Hungarian algorithm, O(n^2 * m)).
+ *
+ * Used by the batch auction: rows are packages, columns are agent slots
+ * (an agent with capacity 2 appears as two columns). A negative weight
+ * means "no bid" and is never part of the result.
+ *
+ * The solver first assigns as many rows as possible, then maximizes the
+ * total weight among those assignments.
+ */
+public final class AssignmentSolver {
+
+    private AssignmentSolver() {
+    }
+
+    /**
+     * @param weight - weight[row][col], negative if row cannot go to col
+     * @return column assigned to each row, or -1 if the row stays unassigned
+     */
+    public static int[] maximize(long[][] weight) {
+        int rows = weight.length;
+        int cols = rows == 0 ? 0 : weight[0].length;
+
+        int[] result = new int[rows];
+        Arrays.fill(result, -1);
+        if (rows == 0 || cols == 0) {
+            return result;
+        }
+
+        long maxWeight = 0;
+        for (long[] row : weight) {
+            for (long w : row) {
+                maxWeight = Math.max(maxWeight, w);
+            }
+        }
+
+        // Any extra real assignment must beat any weight difference
+        long forbidden = (maxWeight + 1) * (Math.min(rows, cols) + 1);
+
+        // The Hungarian method below needs rows <= cols, so transpose if needed
+        boolean transpose = rows > cols;
+        int n = transpose ? cols : rows;
+        int m = transpose ? rows : cols;
+        long[][] cost = new long[n][m];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                long w = transpose ? weight[j][i] : weight[i][j];
+                cost[i][j] = w < 0 ? forbidden : maxWeight - w;
+            }
+        }
+
+        int[] rowToCol = solveMinCost(cost, n, m);
+
+        for (int i = 0; i < n; i++) {
+            int j = rowToCol[i];
+            int row = transpose ? j : i;
+            int col = transpose ? i : j;
+            if (weight[row][col] >= 0) {
+                result[row] = col;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Classic potentials-based Hungarian algorithm for n <= m; every row gets a column
+     */
+    private static int[] solveMinCost(long[][] cost, int n, int m) {
+        long inf = Long.MAX_VALUE / 4;
+        long[] u = new long[n + 1];
+        long[] v = new long[m + 1];
+        int[] match = new int[m + 1];   // column -> row (1-based, 0 = free)
+        int[] way = new int[m + 1];
+        long[] minv = new long[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            match[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, inf);
+            Arrays.fill(used, false);
+
+            do {
+                used[j0] = true;
+                int i0 = match[j0];
+                long delta = inf;
+                int j1 = 0;
+
+                for (int j = 1; j <= m; j++) {
+                    if (!used[j]) {
+                        long cur = cost[i0 - 1][j - 1] - u[i0] - v[j];
+                        if (cur < minv[j]) {
+                            minv[j] = cur;
+                            way[j] = j0;
+                        }
+                        if (minv[j] < delta) {
+                            delta = minv[j];
+                            j1 = j;
+                        }
+                    }
+                }
+
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[match[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (match[j0] != 0);
+
+            do {
+                int j1 = way[j0];
+                match[j0] = match[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] rowToCol = new int[n];
+        for (int j = 1; j <= m; j++) {
+            if (match[j] != 0) {
+                rowToCol[match[j] - 1] = j - 1;
+            }
+        }
+        return rowToCol;
+    }
+}
@@ -6,15 +6,20 @@ import jade.lang.acl.ACLMessage;
 import jade.lang.acl.MessageTemplate;
 import jade.core.behaviours.CyclicBehaviour;
 
-import javax.swing.SwingUtilities;
-import javax.swing.Timer;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * DeliveryAgent.java
  *
  * Enhanced Delivery Agent with auction bidding and trading capabilities.
+ *
+ * Carried packages form a route from the depot (DeliveryMap), ordered by
+ * RoutePlanner: each package counts down to its arrival time along the
+ * route, stops are reached one after another and the return trip starts
+ * from the last stop.
  */
 public class DeliveryAgent extends Agent {
 
@@ -31,13 +36,27 @@ public class DeliveryAgent extends Agent {
     // STATE TRACKING
     // ============================================================
 
+    // Route order; remainingTime never decreases along the list
     private List<PackageInfo> currentPackages;
     private int timeToMaster;
     private String state;
-    private boolean inAuction;
-    private Timer deliveryTimer;
-    private Timer returnTimer;
+    // Auction ids we bid on and have not yet been accepted or rejected for
+    private Set<String> pendingBids;
+    private SimulationClock clock;
+    private LatencyProfile latency;
+    private DeliveryMap map;
+    private SimulationClock.Handle deliveryTimer;
+    private SimulationClock.Handle returnTimer;
+    private long deliveryCheckpoint;
     
+    // Last state / load pushed to the Master's bidder registry
+    private String reportedState;
+    private int reportedLoad = -1;
+
+    // Ranked trade opportunities from the Master, tried in order on refusal
+    private AgentMessage.TradeOpportunities tradeCandidates;
+    private int nextTradeCandidate;
+
     // Trade lock to prevent simultaneous trades
     private boolean currentlyTrading = false;
     private String packageBeingTraded = null;
@@ -57,21 +76,27 @@ public class DeliveryAgent extends Agent {
     private static final boolean TRADING_ENABLED = true;
     private static final int MIN_PRIORITY_DIFF_FOR_TRADE = 2;
 
+    // Shared by all delivery agents (see Metrics, -Dvrp.metrics=true)
+    private static final Metrics.Counter MESSAGES = Metrics.counter("messages.delivery");
+
     // ============================================================
     // HELPER CLASS
     // ============================================================
 
     private class PackageInfo {
         String name;
+        // Seconds to this stop along the route when it was last planned
         int deliveryTime;
         int remainingTime;
         String type;
+        int location;
 
-        PackageInfo(String name, int deliveryTime, String type) {
+        PackageInfo(String name, int deliveryTime, String type, int location) {
             this.name = name;
             this.deliveryTime = deliveryTime;
             this.remainingTime = deliveryTime;
             this.type = type;
+            this.location = location;
         }
     }
 
@@ -95,17 +120,21 @@ public class DeliveryAgent extends Agent {
         this.currentPackages = new ArrayList<>();
         this.timeToMaster = 0;
         this.state = "IDLE";
-        this.inAuction = false;
+        this.pendingBids = new HashSet<>();
+        this.clock = SimulationClock.get();
+        this.latency = LatencyProfile.get();
+        this.map = DeliveryMap.get();
 
-        System.out.println(displayName + " initialized and ready");
+        EventLog.info(getLocalName(), "agent.ready", "priority", priority, "capacity", maxCapacity);
 
         addBehaviour(new MessageHandlerBehaviour());
+        reportStatus();
 
         // Wait for GUI to be fully initialized by MasterAgent, then request first package
         addBehaviour(new jade.core.behaviours.WakerBehaviour(this, 1500) {
             @Override
             protected void onWake() {
-                System.out.println(displayName + " requesting package from Master");
+                EventLog.debug(getLocalName(), "request.initial");
                 requestPackage();
             }
         });
@@ -121,36 +150,49 @@ public class DeliveryAgent extends Agent {
             ACLMessage msg = receive();
 
             if (msg != null) {
+                clock.markActivity();
+
                 int performative = msg.getPerformative();
-                String content = msg.getContent();
                 String sender = msg.getSender().getLocalName();
+                MESSAGES.increment();
+                MasterAgent.events.onAclMessage(getLocalName(), performative);
 
-                System.out.println(getLocalName() + ": Received message type " + ACLMessage.getPerformative(performative) + " from " + sender);
+                EventLog.debug(getLocalName(), "message.received", "performative", performative, "from", sender);
 
                 switch (performative) {
                     case ACLMessage.CFP:
-                        handleAuctionCall(content);
+                        AgentMessage.CfpBundle bundle = MessageCodec.read(msg, AgentMessage.CfpBundle.class);
+                        if (bundle != null) {
+                            handleBatchAuctionCall(bundle, msg.getConversationId());
+                        } else {
+                            handleAuctionCall(MessageCodec.read(msg, AgentMessage.Cfp.class), msg.getConversationId());
+                        }
                         break;
                     case ACLMessage.ACCEPT_PROPOSAL:
-                        handleAuctionWin(content);
+                        AgentMessage.AwardBundle route = MessageCodec.read(msg, AgentMessage.AwardBundle.class);
+                        if (route != null) {
+                            handleRouteAward(route, msg.getConversationId());
+                        } else {
+                            handleAuctionWin(MessageCodec.read(msg, AgentMessage.Award.class), msg.getConversationId());
+                        }
                         break;
                     case ACLMessage.REJECT_PROPOSAL:
-                        handleAuctionLoss(content);
+                        handleAuctionLoss(msg.getContent(), msg.getConversationId());
                         break;
                     case ACLMessage.PROPOSE:
-                        handleTradeRequest(content, sender);
+                        handleTradeRequest(MessageCodec.read(msg, AgentMessage.TradeOffer.class), sender);
                         break;
                     case ACLMessage.AGREE:
-                        handleTradeAccepted(content);
+                        handleTradeAccepted(MessageCodec.read(msg, AgentMessage.Award.class));
                         break;
                     case ACLMessage.REFUSE:
-                        handleTradeRefused(content);
+                        handleTradeRefused(msg.getContent());
                         break;
                     case ACLMessage.INFORM:
-                        handleInformMessage(content);
+                        handleInformMessage(MessageCodec.read(msg, AgentMessage.TradeOpportunities.class));
                         break;
                     default:
-                        System.out.println(getLocalName() + ": Unknown message type " + performative);
+                        EventLog.warn(getLocalName(), "message.unknown", "performative", performative, "from", sender);
                 }
             } else {
                 block();
@@ -162,97 +204,281 @@ public class DeliveryAgent extends Agent {
     // AUCTION BIDDING LOGIC
     // ============================================================
 
-    private void handleAuctionCall(String auctionData) {
-        System.out.println(getLocalName() + ": handleAuctionCall called with data: " + auctionData);
-        System.out.println(getLocalName() + ": State check - packages: " + currentPackages.size() + "/" + maxCapacity + 
-                           ", timeToMaster: " + timeToMaster + ", state: " + state);
+    /**
+     * Several auctions can be open at once; we bid on each of them and the
+     * Master never awards more packages than our capacity.
+     */
+    private void handleAuctionCall(AgentMessage.Cfp cfp, String auctionId) {
+        EventLog.debug(getLocalName(), "auction.cfp", "auction", auctionId, "cfp", cfp);
 
-        if (currentPackages.size() >= maxCapacity) {
-            System.out.println(getLocalName() + ": Cannot bid - at full capacity");
+        if (!canBid()) {
+            declineAuction(auctionId);
             return;
         }
 
-        if (timeToMaster > 0) {
-            System.out.println(getLocalName() + ": Cannot bid - not at master (timeToMaster=" + timeToMaster + ")");
-            return;
-        }
+        String packageName = cfp.packageName();
+        int bidScore = calculateBid(cfp);
 
-        if (state.equals("DELIVERING")) {
-            System.out.println(getLocalName() + ": Cannot bid - currently delivering");
-            return;
-        }
+        ACLMessage bidMsg = new ACLMessage(ACLMessage.PROPOSE);
+        bidMsg.setConversationId(auctionId);
+        MessageCodec.write(bidMsg, new AgentMessage.Bid(packageName, bidScore, priority, System.currentTimeMillis()));
+        bidMsg.addReceiver(new AID("MasterAgent", AID.ISLOCALNAME));
+        send(bidMsg);
+
+        EventLog.info(getLocalName(), "bid.sent", "auction", auctionId, "package", packageName, "score", bidScore);
 
-        String[] parts = auctionData.split(":");
-        String packageName = parts[0];
-        int deliveryTime = Integer.parseInt(parts[1]);
-        String packageType = parts[2];
-        int urgencyScore = Integer.parseInt(parts[3]);
+        pendingBids.add(auctionId);
+        state = "BIDDING";
+    }
+
+    /**
+     * Batch auction: one bid per offered package plus our free slots; the
+     * Master solves the assignment for all agents at once.
+     */
+    private void handleBatchAuctionCall(AgentMessage.CfpBundle bundle, String auctionId) {
+        EventLog.debug(getLocalName(), "auction.batch_cfp", "auction", auctionId, "packages", bundle.packages().size());
 
-        int bidScore = calculateBid(urgencyScore);
+        if (!canBid()) {
+            declineAuction(auctionId);
+            return;
+        }
 
-        System.out.println(getLocalName() + ": SENDING BID " + bidScore + " for " + packageName);
+        long timestamp = System.currentTimeMillis();
+        List<AgentMessage.Bid> bids = new ArrayList<>(bundle.packages().size());
+        for (AgentMessage.Cfp cfp : bundle.packages()) {
+            bids.add(new AgentMessage.Bid(cfp.packageName(), calculateBid(cfp), priority, timestamp));
+        }
 
         ACLMessage bidMsg = new ACLMessage(ACLMessage.PROPOSE);
-        bidMsg.setContent(packageName + ":" + bidScore + ":" + priority + ":" + System.currentTimeMillis());
+        bidMsg.setConversationId(auctionId);
+        MessageCodec.write(bidMsg, new AgentMessage.BidBundle(bids, maxCapacity - currentPackages.size()));
         bidMsg.addReceiver(new AID("MasterAgent", AID.ISLOCALNAME));
         send(bidMsg);
 
-        System.out.println(getLocalName() + ": Bid sent successfully");
+        EventLog.info(getLocalName(), "bid.bundle_sent", "auction", auctionId, "bids", bids.size());
 
-        inAuction = true;
+        pendingBids.add(auctionId);
         state = "BIDDING";
     }
 
-    private int calculateBid(int urgencyScore) {
+    /**
+     * Tell the Master right away so the auction can close without us
+     */
+    private void declineAuction(String auctionId) {
+        ACLMessage refuseMsg = new ACLMessage(ACLMessage.REFUSE);
+        refuseMsg.setConversationId(auctionId);
+        refuseMsg.addReceiver(new AID("MasterAgent", AID.ISLOCALNAME));
+        send(refuseMsg);
+    }
+
+    private boolean canBid() {
+        if (currentPackages.size() >= maxCapacity) {
+            EventLog.debug(getLocalName(), "bid.skipped", "reason", "full capacity", "load", currentPackages.size());
+            return false;
+        }
+
+        if (timeToMaster > 0) {
+            EventLog.debug(getLocalName(), "bid.skipped", "reason", "not at master", "timeToMaster", timeToMaster);
+            return false;
+        }
+
+        if (state.equals("DELIVERING")) {
+            EventLog.debug(getLocalName(), "bid.skipped", "reason", "delivering");
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * The distance part is the extra driving the package adds to our trip:
+     * appended after the last stop, plus the change in the way back
+     */
+    private int calculateBid(AgentMessage.Cfp cfp) {
+        int last = routeEnd();
+        int detour = map.travelSeconds(last, cfp.location()) + map.travelSeconds(cfp.location(), DeliveryMap.DEPOT)
+                - map.travelSeconds(last, DeliveryMap.DEPOT);
+        return calculateBid(priority, maxCapacity - currentPackages.size(), timeToMaster + detour, cfp.urgencyScore());
+    }
+
+    /**
+     * Bid score from the agent's situation; static so benchmarks can call it
+     *
+     * @param travelSeconds - Driving the package costs us (back to the depot plus detour)
+     */
+    static int calculateBid(int priority, int freeSlots, int travelSeconds, int urgencyScore) {
         int priorityComponent = priority * PRIORITY_WEIGHT;
-        int capacityComponent = (maxCapacity - currentPackages.size()) * CAPACITY_WEIGHT;
-        int distancePenalty = timeToMaster * DISTANCE_WEIGHT;
+        int capacityComponent = freeSlots * CAPACITY_WEIGHT;
+        int distancePenalty = travelSeconds * DISTANCE_WEIGHT;
         int urgencyBonus = urgencyScore * URGENCY_WEIGHT;
 
         int totalScore = priorityComponent + capacityComponent - distancePenalty + urgencyBonus;
         return Math.max(0, totalScore);
     }
 
-    private void handleAuctionWin(String assignmentData) {
-        inAuction = false;
+    private void handleAuctionWin(AgentMessage.Award award, String auctionId) {
+        pendingBids.remove(auctionId);
 
-        System.out.println(getLocalName() + ": WON auction - " + assignmentData);
+        EventLog.info(getLocalName(), "auction.won", "auction", auctionId, "award", award);
 
-        String[] parts = assignmentData.split(":");
-        String packageName = parts[0];
-        int deliveryTime = Integer.parseInt(parts[1]);
-        String packageType = parts[2];
-
-        currentPackages.add(new PackageInfo(packageName, deliveryTime, packageType));
+        String packageName = award.packageName();
+        addToRoute(packageName, award.type(), award.location());
 
         updateGUI();
 
         ACLMessage pickupMsg = new ACLMessage(ACLMessage.CONFIRM);
-        pickupMsg.setContent(packageName);
+        MessageCodec.write(pickupMsg, new AgentMessage.DeliveryReport(packageName, "", getLocalName()));
         pickupMsg.addReceiver(new AID("MasterAgent", AID.ISLOCALNAME));
         send(pickupMsg);
 
-        if (!state.equals("DELIVERING")) {
+        // Leave the depot once every open bid has been decided
+        if (pendingBids.isEmpty() && !state.equals("DELIVERING")) {
             startDelivery();
         }
     }
 
-    private void handleAuctionLoss(String lossData) {
-        inAuction = false;
-        state = "IDLE";
+    /**
+     * Every package won in one round (solver route or batch auction): take
+     * them all in the given order, then leave the depot once no other bid is open
+     */
+    private void handleRouteAward(AgentMessage.AwardBundle route, String conversationId) {
+        pendingBids.remove(conversationId);
 
-        System.out.println(getLocalName() + ": Lost auction - " + lossData);
-        System.out.println(getLocalName() + ": Current state - Packages: " + currentPackages.size() + 
-                         "/" + maxCapacity + ", Trading enabled: " + TRADING_ENABLED);
+        EventLog.info(getLocalName(), "route.awarded", "conversation", conversationId, "stops", route.stops().size());
+
+        for (AgentMessage.Award award : route.stops()) {
+            addToRoute(award.packageName(), award.type(), award.location());
+
+            ACLMessage pickupMsg = new ACLMessage(ACLMessage.CONFIRM);
+            MessageCodec.write(pickupMsg, new AgentMessage.DeliveryReport(award.packageName(), "", getLocalName()));
+            pickupMsg.addReceiver(new AID("MasterAgent", AID.ISLOCALNAME));
+            send(pickupMsg);
+        }
+
+        updateGUI();
+
+        if (pendingBids.isEmpty() && !state.equals("DELIVERING")) {
+            startDelivery();
+        }
+    }
+
+    private void handleAuctionLoss(String lossData, String auctionId) {
+        pendingBids.remove(auctionId);
+
+        EventLog.info(getLocalName(), "auction.lost", "auction", auctionId, "reason", lossData);
+
+        if (!pendingBids.isEmpty()) {
+            return;
+        }
+
+        if (!currentPackages.isEmpty()) {
+            if (!state.equals("DELIVERING")) {
+                startDelivery();
+            }
+            return;
+        }
+
+        state = "IDLE";
+        boolean attemptTrade = TRADING_ENABLED && currentPackages.size() < maxCapacity;
+        EventLog.debug(getLocalName(), "trade.check", "load", currentPackages.size(), "capacity", maxCapacity,
+                "tradingEnabled", TRADING_ENABLED, "attempt", attemptTrade);
 
         // Try to get work through trading if we have capacity
-        if (TRADING_ENABLED && currentPackages.size() < maxCapacity) {
-            System.out.println(getLocalName() + ": ✓ Conditions met - attempting trade immediately");
+        if (attemptTrade) {
             // Try trade immediately (no delay)
             considerTradeRequest();
-        } else {
-            System.out.println(getLocalName() + ": ✗ Cannot trade - Trading enabled: " + TRADING_ENABLED + 
-                             ", Has capacity: " + (currentPackages.size() < maxCapacity));
+        }
+    }
+
+    // ============================================================
+    // ROUTE
+    // ============================================================
+
+    /**
+     * Location of the last stop, or the depot with no packages
+     */
+    private int routeEnd() {
+        return currentPackages.isEmpty() ? DeliveryMap.DEPOT
+                : currentPackages.get(currentPackages.size() - 1).location;
+    }
+
+    /**
+     * Arrival at the last stop, in seconds from now
+     */
+    private int routeTime() {
+        return currentPackages.isEmpty() ? 0 : currentPackages.get(currentPackages.size() - 1).remainingTime;
+    }
+
+    /**
+     * Append a stop; its countdown is the arrival time there along the route
+     * until the route is planned again on departure
+     */
+    private void addToRoute(String packageName, String type, int location) {
+        if (deliveryTimer != null) {
+            advanceDelivery();
+        }
+        int arrival = routeTime() + map.travelSeconds(routeEnd(), location);
+        currentPackages.add(new PackageInfo(packageName, arrival, type, location));
+    }
+
+    /**
+     * Drop a stop and plan the rest of the route without it. If it was the
+     * stop we were driving to, the next stop keeps its arrival time: our
+     * position on the way is unknown, so no shortcut is assumed.
+     */
+    private void removeFromRoute(PackageInfo pkg) {
+        currentPackages.remove(pkg);
+        planRoute(deliveryTimer != null);
+    }
+
+    /**
+     * Order the stops not reached yet with RoutePlanner and recompute their
+     * arrival times. At the depot the whole trip is planned; on the road the
+     * stop we are driving to stays next and the trip is planned from there.
+     * Countdowns must be up to date (advanceDelivery) before calling.
+     */
+    private void planRoute(boolean onRoad) {
+        int first = 0;
+        while (first < currentPackages.size() && currentPackages.get(first).remainingTime <= 0) {
+            first++;
+        }
+
+        int start = DeliveryMap.DEPOT;
+        int departure = 0;
+        if (onRoad && first < currentPackages.size()) {
+            PackageInfo target = currentPackages.get(first);
+            start = target.location;
+            departure = target.remainingTime;
+            first++;
+        }
+
+        List<PackageInfo> open = new ArrayList<>(currentPackages.subList(first, currentPackages.size()));
+        if (open.isEmpty()) {
+            return;
+        }
+        int[] stops = new int[open.size()];
+        for (int i = 0; i < stops.length; i++) {
+            stops[i] = open.get(i).location;
+        }
+        int[] order = RoutePlanner.plan(map, start, stops);
+        // Keep the current order (e.g. a route planned by the Master) unless the plan is shorter
+        int[] current = new int[stops.length];
+        for (int i = 0; i < current.length; i++) {
+            current[i] = i;
+        }
+        if (RoutePlanner.tripSeconds(map, start, stops, current) <= RoutePlanner.tripSeconds(map, start, stops, order)) {
+            order = current;
+        }
+
+        int at = start;
+        int arrival = departure;
+        for (int i = 0; i < order.length; i++) {
+            PackageInfo stop = open.get(order[i]);
+            arrival += map.travelSeconds(at, stop.location);
+            at = stop.location;
+            stop.deliveryTime = arrival;
+            stop.remainingTime = arrival;
+            currentPackages.set(first + i, stop);
         }
     }
 
@@ -261,16 +487,43 @@ public class DeliveryAgent extends Agent {
     // ============================================================
 
     private void startDelivery() {
+        // Packages can be added or traded away mid-delivery, so restart from a fresh checkpoint
+        boolean onRoad = deliveryTimer != null;
+        if (onRoad) {
+            advanceDelivery();
+            deliveryTimer.cancel();
+        } else {
+            deliveryCheckpoint = clock.now();
+        }
+        planRoute(onRoad);
+
         state = "DELIVERING";
+        reportStatus();
 
-        System.out.println(getLocalName() + ": Starting delivery of " + currentPackages.size() + " package(s)");
+        EventLog.info(getLocalName(), "delivery.start", "packages", currentPackages.size(),
+                "tripSeconds", routeTime() + map.travelSeconds(routeEnd(), DeliveryMap.DEPOT));
 
-        deliveryTimer = new Timer(1000, e -> {
-            boolean allDelivered = true;
+        scheduleDeliveryStep();
+    }
 
+    /**
+     * Real-time clock: tick every second so the GUI counts down.
+     * Discrete-event clock: jump straight to the moment the last package is delivered.
+     */
+    private void scheduleDeliveryStep() {
+        int step = 1;
+        if (!clock.isRealTime()) {
+            for (PackageInfo pkg : currentPackages) {
+                step = Math.max(step, pkg.remainingTime);
+            }
+        }
+
+        deliveryTimer = clock.schedule(this, step * 1000L, () -> {
+            advanceDelivery();
+
+            boolean allDelivered = true;
             for (PackageInfo pkg : currentPackages) {
                 if (pkg.remainingTime > 0) {
-                    pkg.remainingTime--;
                     allDelivered = false;
                 }
             }
@@ -279,31 +532,37 @@ public class DeliveryAgent extends Agent {
 
             if (allDelivered) {
                 completeDelivery();
+            } else {
+                scheduleDeliveryStep();
             }
         });
-        deliveryTimer.start();
     }
 
-    private void completeDelivery() {
-        if (deliveryTimer != null) {
-            deliveryTimer.stop();
-            deliveryTimer = null;
+    /**
+     * Apply the simulated time elapsed since the last checkpoint to every carried package
+     */
+    private void advanceDelivery() {
+        int elapsed = (int) Math.round((clock.now() - deliveryCheckpoint) / 1000.0);
+        if (elapsed <= 0) {
+            return;
         }
-
-        int maxDeliveryTime = 0;
-        StringBuilder packageNames = new StringBuilder();
+        deliveryCheckpoint += elapsed * 1000L;
 
         for (PackageInfo pkg : currentPackages) {
-            if (pkg.deliveryTime > maxDeliveryTime) {
-                maxDeliveryTime = pkg.deliveryTime;
-            }
-            if (packageNames.length() > 0) packageNames.append(", ");
-            packageNames.append(pkg.name);
+            pkg.remainingTime = Math.max(0, pkg.remainingTime - elapsed);
+        }
+    }
+
+    private void completeDelivery() {
+        if (deliveryTimer != null) {
+            deliveryTimer.cancel();
+            deliveryTimer = null;
         }
 
-        timeToMaster = maxDeliveryTime;
+        // Drive back from the last stop
+        timeToMaster = map.travelSeconds(routeEnd(), DeliveryMap.DEPOT);
 
-        System.out.println(getLocalName() + ": Completed delivery, returning (" + timeToMaster + "s)");
+        EventLog.info(getLocalName(), "delivery.complete", "returnSeconds", timeToMaster);
 
         currentPackages.clear();
         updateGUI();
@@ -313,40 +572,47 @@ public class DeliveryAgent extends Agent {
     private void startReturn() {
         state = "RETURNING";
 
-        returnTimer = new Timer(1000, e -> {
-            timeToMaster--;
+        scheduleReturnStep();
+    }
+
+    private void scheduleReturnStep() {
+        int step = clock.isRealTime() ? 1 : Math.max(1, timeToMaster);
+
+        returnTimer = clock.schedule(this, step * 1000L, () -> {
+            timeToMaster = Math.max(0, timeToMaster - step);
             updateGUI();
 
             if (timeToMaster <= 0) {
                 arriveAtMaster();
+            } else {
+                scheduleReturnStep();
             }
         });
-        returnTimer.start();
     }
 
     private void arriveAtMaster() {
         if (returnTimer != null) {
-            returnTimer.stop();
+            returnTimer.cancel();
             returnTimer = null;
         }
 
         timeToMaster = 0;
         state = "IDLE";
 
-        System.out.println(getLocalName() + ": Arrived at master");
+        EventLog.info(getLocalName(), "depot.arrived");
 
         updateGUI();
         
         // Only request if not already in auction or trading
-        if (!inAuction && !currentlyTrading) {
+        if (pendingBids.isEmpty() && !currentlyTrading) {
             requestPackage();
         }
     }
 
     private void requestPackage() {
         // Prevent duplicate requests
-        if (inAuction || currentlyTrading) {
-            System.out.println(getLocalName() + ": Skipping REQUEST - already in auction or trading");
+        if (!pendingBids.isEmpty() || currentlyTrading) {
+            EventLog.debug(getLocalName(), "request.skipped", "reason", "auction or trade in progress");
             return;
         }
         
@@ -363,7 +629,7 @@ public class DeliveryAgent extends Agent {
     private void considerTradeRequest() {
         // Only check if we have capacity for more packages
         if (currentPackages.size() >= maxCapacity) {
-            System.out.println(getLocalName() + ": Cannot request trade - at full capacity");
+            EventLog.debug(getLocalName(), "trade.skipped", "reason", "full capacity");
             return;
         }
 
@@ -371,48 +637,35 @@ public class DeliveryAgent extends Agent {
         state = "TRADING";
         updateGUI();
 
-        System.out.println(getLocalName() + ": *** ENTERING TRADING MODE *** Requesting trade opportunities from Master");
-        System.out.println(getLocalName() + ": My workload: " + currentPackages.size() + "/" + maxCapacity);
+        EventLog.info(getLocalName(), "trade.query", "load", currentPackages.size(), "capacity", maxCapacity);
 
-        // Add 1 second delay before sending request (so TRADING status is visible)
-        addBehaviour(new jade.core.behaviours.WakerBehaviour(this, 1000) {
-            @Override
-            protected void onWake() {
-                // Include current package count for workload balancing
-                ACLMessage tradeInfoRequest = new ACLMessage(ACLMessage.QUERY_REF);
-                tradeInfoRequest.setContent("REQUEST_TRADE_OPPORTUNITIES:" + priority + ":" + currentPackages.size());
-                tradeInfoRequest.addReceiver(new AID("MasterAgent", AID.ISLOCALNAME));
-                send(tradeInfoRequest);
-            }
+        // Demo profile: hold TRADING for a second so it is visible before the QUERY_REF
+        LatencyProfile.runAfter(this, latency.tradeQueryDelayMs, () -> {
+            // Include current package count for workload balancing
+            ACLMessage tradeInfoRequest = new ACLMessage(ACLMessage.QUERY_REF);
+            MessageCodec.write(tradeInfoRequest, new AgentMessage.TradeQuery(priority, currentPackages.size()));
+            tradeInfoRequest.addReceiver(new AID("MasterAgent", AID.ISLOCALNAME));
+            send(tradeInfoRequest);
         });
     }
 
-    private void handleTradeRequest(String tradeData, String requesterName) {
-        String[] parts = tradeData.split(":");
-        String requestedPackage = parts[0];
-        int requesterPriority = Integer.parseInt(parts[1]);
-        int requesterPackages = parts.length >= 3 ? Integer.parseInt(parts[2]) : 0;
+    private void handleTradeRequest(AgentMessage.TradeOffer offer, String requesterName) {
+        String requestedPackage = offer.packageName();
+        int requesterPriority = offer.priority();
+        int requesterPackages = offer.load();
 
-        System.out.println(getLocalName() + ": *** TRADE REQUEST RECEIVED from " + requesterName + " ***");
-        System.out.println(getLocalName() + ": Workload comparison - Requester: " + requesterPackages + ", Me: " + currentPackages.size());
+        EventLog.info(getLocalName(), "trade.request", "from", requesterName, "package", requestedPackage,
+                "requesterLoad", requesterPackages, "load", currentPackages.size());
         
         // FIX 1: Reject if already trading
         if (currentlyTrading) {
-            System.out.println(getLocalName() + ": REJECTING - Already in trade negotiation with another agent");
-            ACLMessage refuseMsg = new ACLMessage(ACLMessage.REFUSE);
-            refuseMsg.setContent("Already trading with another agent");
-            refuseMsg.addReceiver(new AID(requesterName, AID.ISLOCALNAME));
-            send(refuseMsg);
+            refuseTrade(requesterName, requestedPackage, "Already trading with another agent");
             return;
         }
         
         // FIX 2: Reject if this specific package is being traded
         if (packageBeingTraded != null && packageBeingTraded.equals(requestedPackage)) {
-            System.out.println(getLocalName() + ": REJECTING - Package " + requestedPackage + " is already being traded");
-            ACLMessage refuseMsg = new ACLMessage(ACLMessage.REFUSE);
-            refuseMsg.setContent("Package already being traded");
-            refuseMsg.addReceiver(new AID(requesterName, AID.ISLOCALNAME));
-            send(refuseMsg);
+            refuseTrade(requesterName, requestedPackage, "Package already being traded");
             return;
         }
         
@@ -421,30 +674,26 @@ public class DeliveryAgent extends Agent {
         state = "TRADING";
         updateGUI();
 
+        if (deliveryTimer != null) {
+            advanceDelivery();
+        }
+
         PackageInfo foundPackage = currentPackages.stream().filter(pkg -> pkg.name.equals(requestedPackage)).findFirst().orElse(null);
 
         if (foundPackage == null) {
-            System.out.println(getLocalName() + ": Cannot trade - package " + requestedPackage + " not found");
             state = previousState;
             updateGUI();
             
-            ACLMessage refuseMsg = new ACLMessage(ACLMessage.REFUSE);
-            refuseMsg.setContent("Package not found");
-            refuseMsg.addReceiver(new AID(requesterName, AID.ISLOCALNAME));
-            send(refuseMsg);
+            refuseTrade(requesterName, requestedPackage, "Package not found");
             return;
         }
         
         // FIX 3: Reject if package already delivered (0 seconds remaining)
         if (foundPackage.remainingTime <= 0) {
-            System.out.println(getLocalName() + ": Cannot trade - package " + requestedPackage + " already delivered (0s remaining)");
             state = previousState;
             updateGUI();
             
-            ACLMessage refuseMsg = new ACLMessage(ACLMessage.REFUSE);
-            refuseMsg.setContent("Package already delivered");
-            refuseMsg.addReceiver(new AID(requesterName, AID.ISLOCALNAME));
-            send(refuseMsg);
+            refuseTrade(requesterName, requestedPackage, "Package already delivered");
             return;
         }
 
@@ -459,89 +708,82 @@ public class DeliveryAgent extends Agent {
             final String finalRequesterName = requesterName;
             final int finalRequesterPriority = requesterPriority;
             
-            // Use WakerBehaviour for delay instead of Thread.sleep
-            addBehaviour(new jade.core.behaviours.WakerBehaviour(DeliveryAgent.this, 1500) {
-                @Override
-                protected void onWake() {
-                    // FIX 4: Verify package still exists before executing trade
-                    if (!currentPackages.contains(pkgToTrade)) {
-                        System.out.println(getLocalName() + ": TRADE CANCELLED - Package " + requestedPackage + " no longer available");
-                        
-                        ACLMessage refuseMsg = new ACLMessage(ACLMessage.REFUSE);
-                        refuseMsg.setContent("Package no longer available");
-                        refuseMsg.addReceiver(new AID(finalRequesterName, AID.ISLOCALNAME));
-                        send(refuseMsg);
-                        
-                        // Unlock trade
-                        currentlyTrading = false;
-                        packageBeingTraded = null;
-                        state = previousState;
-                        updateGUI();
-                        return;
-                    }
-                    
-                    // FIX 5: Verify package not delivered during delay
-                    if (pkgToTrade.remainingTime <= 0) {
-                        System.out.println(getLocalName() + ": TRADE CANCELLED - Package " + requestedPackage + " was delivered during negotiation");
-                        
-                        ACLMessage refuseMsg = new ACLMessage(ACLMessage.REFUSE);
-                        refuseMsg.setContent("Package was delivered during negotiation");
-                        refuseMsg.addReceiver(new AID(finalRequesterName, AID.ISLOCALNAME));
-                        send(refuseMsg);
-                        
-                        // Unlock trade
-                        currentlyTrading = false;
-                        packageBeingTraded = null;
-                        state = previousState;
-                        updateGUI();
-                        return;
-                    }
-                    
-                    // Execute trade
-                    currentPackages.remove(pkgToTrade);
-
-                    System.out.println(getLocalName() + ": *** TRADE ACCEPTED *** - giving " + requestedPackage + " to " + finalRequesterName);
-
-                    // Log trade in GUI with emphasis
-                    SwingUtilities.invokeLater(() -> {
-                        if (MasterAgent.gui != null) {
-                            MasterAgent.gui.addMessage("═══════════════════════════════════════════════════════");
-                            MasterAgent.gui.addMessage("[TRADE EXECUTED] " + getLocalName() + " → " + finalRequesterName);
-                            MasterAgent.gui.addMessage("Package: " + requestedPackage + " (" + pkgToTrade.remainingTime + "s remaining)");
-                            MasterAgent.gui.addMessage("Reason: Priority-based transfer (P:" + priority + " → P:" + finalRequesterPriority + ")");
-                            MasterAgent.gui.addMessage("═══════════════════════════════════════════════════════");
-                        }
-                    });
-
-                    // Send package to requester
-                    ACLMessage acceptMsg = new ACLMessage(ACLMessage.AGREE);
-                    acceptMsg.setContent(pkgToTrade.name + ":" + pkgToTrade.remainingTime + ":" + pkgToTrade.type);
-                    acceptMsg.addReceiver(new AID(finalRequesterName, AID.ISLOCALNAME));
-                    send(acceptMsg);
-
-                    // NOTIFY MASTER AGENT OF TRADE
-                    ACLMessage notifyMaster = new ACLMessage(ACLMessage.INFORM);
-                    notifyMaster.setConversationId("TRADE_NOTIFICATION");
-                    notifyMaster.setContent("TRADE_COMPLETE:" + pkgToTrade.name + ":" + 
-                                           getLocalName() + ":" + finalRequesterName);
-                    notifyMaster.addReceiver(new AID("MasterAgent", AID.ISLOCALNAME));
-                    send(notifyMaster);
-                    
-                    System.out.println(getLocalName() + ": Notified MasterAgent of trade: " + 
-                                     pkgToTrade.name + " → " + finalRequesterName);
+            // Demo profile pause so the trade is visible; immediate in production
+            LatencyProfile.runAfter(DeliveryAgent.this, latency.tradeExecuteDelayMs, () -> {
+                if (deliveryTimer != null) {
+                    advanceDelivery();
+                }
 
+                // FIX 4: Verify package still exists before executing trade
+                if (!currentPackages.contains(pkgToTrade)) {
+                    refuseTrade(finalRequesterName, requestedPackage, "Package no longer available");
+                    
                     // Unlock trade
                     currentlyTrading = false;
                     packageBeingTraded = null;
+                    state = previousState;
+                    updateGUI();
+                    return;
+                }
+                
+                // FIX 5: Verify package not delivered during delay
+                if (pkgToTrade.remainingTime <= 0) {
+                    refuseTrade(finalRequesterName, requestedPackage, "Package was delivered during negotiation");
                     
-                    // Return to previous state
+                    // Unlock trade
+                    currentlyTrading = false;
+                    packageBeingTraded = null;
                     state = previousState;
                     updateGUI();
+                    return;
                 }
+                
+                // Execute trade
+                removeFromRoute(pkgToTrade);
+
+                // The completion event may have been scheduled for the package we just gave away
+                if (deliveryTimer != null) {
+                    deliveryTimer.cancel();
+                    scheduleDeliveryStep();
+                }
+
+                EventLog.info(getLocalName(), "trade.accepted", "package", requestedPackage, "to", finalRequesterName,
+                        "remaining", pkgToTrade.remainingTime);
+
+                // Log trade in GUI with emphasis
+                MasterAgent.events.onMessage("═══════════════════════════════════════════════════════");
+                MasterAgent.events.onMessage("[TRADE EXECUTED] " + getLocalName() + " → " + finalRequesterName);
+                MasterAgent.events.onMessage("Package: " + requestedPackage + " (" + pkgToTrade.remainingTime + "s remaining)");
+                MasterAgent.events.onMessage("Reason: Priority-based transfer (P:" + priority + " → P:" + finalRequesterPriority + ")");
+                MasterAgent.events.onMessage("═══════════════════════════════════════════════════════");
+
+                // Send package to requester
+                ACLMessage acceptMsg = new ACLMessage(ACLMessage.AGREE);
+                MessageCodec.write(acceptMsg, new AgentMessage.Award(pkgToTrade.name, pkgToTrade.remainingTime, pkgToTrade.type,
+                        pkgToTrade.location));
+                acceptMsg.addReceiver(new AID(finalRequesterName, AID.ISLOCALNAME));
+                send(acceptMsg);
+
+                // NOTIFY MASTER AGENT OF TRADE
+                ACLMessage notifyMaster = new ACLMessage(ACLMessage.INFORM);
+                notifyMaster.setConversationId("TRADE_NOTIFICATION");
+                MessageCodec.write(notifyMaster, new AgentMessage.DeliveryReport(pkgToTrade.name,
+                        getLocalName(), finalRequesterName));
+                notifyMaster.addReceiver(new AID("MasterAgent", AID.ISLOCALNAME));
+                send(notifyMaster);
+                
+                EventLog.debug(getLocalName(), "trade.notified_master", "package", pkgToTrade.name,
+                        "to", finalRequesterName);
+
+                // Unlock trade
+                currentlyTrading = false;
+                packageBeingTraded = null;
+                
+                // Return to previous state
+                state = previousState;
+                updateGUI();
             });
         } else {
-            System.out.println(getLocalName() + ": *** TRADE REFUSED *** with " + requesterName);
-
             // Unlock trade
             currentlyTrading = false;
             packageBeingTraded = null;
@@ -550,13 +792,28 @@ public class DeliveryAgent extends Agent {
             state = previousState;
             updateGUI();
 
-            ACLMessage refuseMsg = new ACLMessage(ACLMessage.REFUSE);
-            refuseMsg.setContent("Trade not beneficial (priority diff: " + (requesterPriority - priority) + ")");
-            refuseMsg.addReceiver(new AID(requesterName, AID.ISLOCALNAME));
-            send(refuseMsg);
+            refuseTrade(requesterName, requestedPackage, "Trade not beneficial (priority diff: " + (requesterPriority - priority) + ")");
         }
     }
 
+    /**
+     * Refuse the requester and let the Master record it in our trade history
+     */
+    private void refuseTrade(String requesterName, String packageName, String reason) {
+        EventLog.info(getLocalName(), "trade.refused", "to", requesterName, "package", packageName, "reason", reason);
+
+        ACLMessage refuseMsg = new ACLMessage(ACLMessage.REFUSE);
+        refuseMsg.setContent(reason);
+        refuseMsg.addReceiver(new AID(requesterName, AID.ISLOCALNAME));
+        send(refuseMsg);
+
+        ACLMessage notifyMaster = new ACLMessage(ACLMessage.INFORM);
+        notifyMaster.setConversationId("TRADE_REFUSED");
+        MessageCodec.write(notifyMaster, new AgentMessage.DeliveryReport(packageName, getLocalName(), requesterName));
+        notifyMaster.addReceiver(new AID("MasterAgent", AID.ISLOCALNAME));
+        send(notifyMaster);
+    }
+
     private boolean evaluateTrade(int requesterPriority, int requesterPackages) {
         int priorityDiff = requesterPriority - this.priority;
         int workloadDiff = currentPackages.size() - requesterPackages;
@@ -568,46 +825,28 @@ public class DeliveryAgent extends Agent {
         boolean priorityBased = priorityDiff >= MIN_PRIORITY_DIFF_FOR_TRADE && currentPackages.size() > 0;
         boolean workloadBased = workloadDiff >= 2;  // I'm overloaded, they need work
         
-        if (priorityBased) {
-            System.out.println(getLocalName() + ": Trade evaluation - PRIORITY-BASED");
-            System.out.println(getLocalName() + ":   Priority diff: " + priorityDiff + " (≥" + MIN_PRIORITY_DIFF_FOR_TRADE + ") ✓");
-            System.out.println(getLocalName() + ":   Decision: ACCEPTING");
-            return true;
-        }
-        
-        if (workloadBased) {
-            System.out.println(getLocalName() + ": Trade evaluation - WORKLOAD-BASED");
-            System.out.println(getLocalName() + ":   Workload diff: " + workloadDiff + " (≥2) ✓");
-            System.out.println(getLocalName() + ":   I have " + currentPackages.size() + ", they have " + requesterPackages);
-            System.out.println(getLocalName() + ":   Decision: ACCEPTING (balancing workload)");
-            return true;
-        }
-        
-        System.out.println(getLocalName() + ": Trade evaluation - REFUSING");
-        System.out.println(getLocalName() + ":   Priority diff: " + priorityDiff + " (need ≥" + MIN_PRIORITY_DIFF_FOR_TRADE + ")");
-        System.out.println(getLocalName() + ":   Workload diff: " + workloadDiff + " (need ≥2)");
-        return false;
+        String decision = priorityBased ? "accept-priority" : workloadBased ? "accept-workload" : "refuse";
+        EventLog.debug(getLocalName(), "trade.evaluation", "priorityDiff", priorityDiff,
+                "workloadDiff", workloadDiff, "decision", decision);
+
+        return priorityBased || workloadBased;
     }
 
-    private void handleTradeAccepted(String packageData) {
-        String[] parts = packageData.split(":");
-        String packageName = parts[0];
-        int remainingTime = Integer.parseInt(parts[1]);
-        String packageType = parts[2];
+    private void handleTradeAccepted(AgentMessage.Award transfer) {
+        String packageName = transfer.packageName();
+        int remainingTime = transfer.deliveryTime();
+        String packageType = transfer.type();
 
-        System.out.println(getLocalName() + ": *** TRADE COMPLETED *** - received " + packageName + " with " + remainingTime + "s remaining");
+        EventLog.info(getLocalName(), "trade.received", "package", packageName, "remaining", remainingTime);
 
         // Log successful trade with emphasis
-        SwingUtilities.invokeLater(() -> {
-            if (MasterAgent.gui != null) {
-                MasterAgent.gui.addMessage("[TRADE COMPLETE] " + getLocalName() + 
-                                          " now has " + packageName + " and will continue delivery");
-            }
-        });
+        MasterAgent.events.onMessage("[TRADE COMPLETE] " + getLocalName() + 
+                                     " now has " + packageName + " and will continue delivery");
+
+        tradeCandidates = null;
 
-        PackageInfo tradedPackage = new PackageInfo(packageName, remainingTime, packageType);
-        tradedPackage.remainingTime = remainingTime;
-        currentPackages.add(tradedPackage);
+        // We take it from where we are, not from the previous carrier's position
+        addToRoute(packageName, packageType, transfer.location());
 
         // Return to appropriate state
         state = "IDLE";
@@ -619,114 +858,114 @@ public class DeliveryAgent extends Agent {
     }
 
     private void handleTradeRefused(String reason) {
-        System.out.println(getLocalName() + ": Trade refused - " + reason);
+        EventLog.info(getLocalName(), "trade.rejected", "reason", reason);
         
         // Log trade failure
-        SwingUtilities.invokeLater(() -> {
-            if (MasterAgent.gui != null) {
-                MasterAgent.gui.addMessage("[TRADE REFUSED] " + getLocalName() + " - " + reason);
-            }
-        });
-        
+        MasterAgent.events.onMessage("[TRADE REFUSED] " + getLocalName() + " - " + reason);
+
+        // Next best opportunity from the same list, without asking the Master again
+        if (currentPackages.size() < maxCapacity && pendingBids.isEmpty() && proposeNextTrade()) {
+            return;
+        }
+
+        tradeCandidates = null;
         state = "IDLE";
     }
 
-    private void handleInformMessage(String content) {
-        System.out.println(getLocalName() + ": Received info - " + content);
+    private void handleInformMessage(AgentMessage.TradeOpportunities opportunities) {
+        EventLog.debug(getLocalName(), "trade.opportunities", "opportunities", opportunities);
         
         // Handle trade opportunities from MasterAgent
-        if (content.startsWith("TRADE_OPPORTUNITIES:")) {
-            String opportunities = content.substring("TRADE_OPPORTUNITIES:".length());
-            
-            if (opportunities.isEmpty()) {
-                System.out.println(getLocalName() + ": No trade opportunities available");
+        if (opportunities != null) {
+            if (opportunities.packages().isEmpty()) {
+                EventLog.info(getLocalName(), "trade.none");
                 
-                // Stay in TRADING state for 2 seconds so it's visible
-                addBehaviour(new jade.core.behaviours.WakerBehaviour(DeliveryAgent.this, 2000) {
-                    @Override
-                    protected void onWake() {
-                        SwingUtilities.invokeLater(() -> {
-                            if (MasterAgent.gui != null) {
-                                MasterAgent.gui.addMessage("[TRADE] " + getLocalName() + 
-                                                          " - No suitable trade partners found");
-                            }
-                        });
-                        // Return to IDLE state after delay
-                        state = "IDLE";
-                        updateGUI();
-                    }
+                // Demo profile: stay in TRADING for 2 seconds so it is visible
+                LatencyProfile.runAfter(DeliveryAgent.this, latency.noPartnerLingerMs, () -> {
+                    MasterAgent.events.onMessage("[TRADE] " + getLocalName() + 
+                                                 " - No suitable trade partners found");
+                    // Return to IDLE state after delay
+                    state = "IDLE";
+                    updateGUI();
                 });
                 return;
             }
             
-            // Parse opportunities: "Agent7:P3,Agent6:P5"
-            String[] opps = opportunities.split(",");
-            for (String opp : opps) {
-                String[] parts = opp.split(":");
-                if (parts.length == 2) {
-                    String targetAgent = parts[0];
-                    String packageName = parts[1];
-                    
-                    System.out.println(getLocalName() + ": *** INITIATING TRADE *** for " + packageName + " from " + targetAgent);
-                    
-                    final String finalTargetAgent = targetAgent;
-                    final String finalPackageName = packageName;
-                    
-                    SwingUtilities.invokeLater(() -> {
-                        if (MasterAgent.gui != null) {
-                            MasterAgent.gui.addMessage("───────────────────────────────────────────────────────");
-                            MasterAgent.gui.addMessage("[TRADE NEGOTIATION] " + getLocalName() + 
-                                                      " → " + finalTargetAgent + ": Requesting " + finalPackageName);
-                            MasterAgent.gui.addMessage("───────────────────────────────────────────────────────");
-                        }
-                    });
-                    
-                    // Use WakerBehaviour for delay instead of Thread.sleep
-                    addBehaviour(new jade.core.behaviours.WakerBehaviour(DeliveryAgent.this, 1000) {
-                        @Override
-                        protected void onWake() {
-                            // Send trade request to target agent (include package count for workload evaluation)
-                            ACLMessage tradeRequest = new ACLMessage(ACLMessage.PROPOSE);
-                            tradeRequest.setContent(finalPackageName + ":" + priority + ":" + currentPackages.size());
-                            tradeRequest.addReceiver(new AID(finalTargetAgent, AID.ISLOCALNAME));
-                            send(tradeRequest);
-                        }
-                    });
-                    
-                    // Only request one trade at a time
-                    break;
-                }
-            }
+            // Ranked best first; only request one trade at a time
+            tradeCandidates = opportunities;
+            nextTradeCandidate = 0;
+            proposeNextTrade();
         }
     }
 
+    /**
+     * @return false if every candidate has been tried
+     */
+    private boolean proposeNextTrade() {
+        if (tradeCandidates == null || nextTradeCandidate >= tradeCandidates.packages().size()) {
+            return false;
+        }
+
+        String targetAgent = tradeCandidates.agents().get(nextTradeCandidate);
+        String packageName = tradeCandidates.packages().get(nextTradeCandidate);
+        nextTradeCandidate++;
+
+        EventLog.info(getLocalName(), "trade.propose", "to", targetAgent, "package", packageName);
+
+        MasterAgent.events.onMessage("───────────────────────────────────────────────────────");
+        MasterAgent.events.onMessage("[TRADE NEGOTIATION] " + getLocalName() + 
+                                     " → " + targetAgent + ": Requesting " + packageName);
+        MasterAgent.events.onMessage("───────────────────────────────────────────────────────");
+
+        LatencyProfile.runAfter(DeliveryAgent.this, latency.tradeProposeDelayMs, () -> {
+            // Send trade request to target agent (include package count for workload evaluation)
+            ACLMessage tradeRequest = new ACLMessage(ACLMessage.PROPOSE);
+            MessageCodec.write(tradeRequest, new AgentMessage.TradeOffer(packageName, priority, currentPackages.size()));
+            tradeRequest.addReceiver(new AID(targetAgent, AID.ISLOCALNAME));
+            send(tradeRequest);
+        });
+        return true;
+    }
+
     // ============================================================
     // GUI UPDATE
     // ============================================================
 
     private void updateGUI() {
-        SwingUtilities.invokeLater(() -> {
-            if (MasterAgent.gui == null) return;
+        int totalDeliveryTime = 0;
+        StringBuilder packageList = new StringBuilder();
 
-            int totalDeliveryTime = 0;
-            StringBuilder packageList = new StringBuilder();
+        for (PackageInfo pkg : currentPackages) {
+            // Stops are driven one after another: the last arrival is the time left
+            totalDeliveryTime = Math.max(totalDeliveryTime, pkg.remainingTime);
+            if (packageList.length() > 0) packageList.append(", ");
+            packageList.append(pkg.name);
+        }
 
-            for (PackageInfo pkg : currentPackages) {
-                totalDeliveryTime += pkg.remainingTime;
-                if (packageList.length() > 0) packageList.append(", ");
-                packageList.append(pkg.name);
-            }
+        String pkgDisplay = packageList.length() > 0 ? packageList.toString() : null;
 
-            MasterAgent.gui.updateAgentTimes(displayName, timeToMaster, totalDeliveryTime);
+        MasterAgent.events.onAgentUpdate(displayName, state, pkgDisplay,
+                currentPackages.size(), maxCapacity, timeToMaster, totalDeliveryTime);
 
-            String pkgDisplay = packageList.length() > 0 ? packageList.toString() : null;
-            MasterAgent.gui.updateAgentPackage(displayName, pkgDisplay);
+        reportStatus();
+    }
 
-            MasterAgent.gui.updateAgentCapacity(displayName, currentPackages.size(), maxCapacity);
-            
-            // Update status with special color for TRADING
-            MasterAgent.gui.updateAgentStatus(displayName, state);
-        });
+    /**
+     * Push state / load changes to the Master's bidder registry. Countdown
+     * ticks are not sent; arriving at the depot is a state change anyway.
+     */
+    private void reportStatus() {
+        if (state.equals(reportedState) && currentPackages.size() == reportedLoad) {
+            return;
+        }
+        reportedState = state;
+        reportedLoad = currentPackages.size();
+
+        ACLMessage statusMsg = new ACLMessage(ACLMessage.INFORM);
+        statusMsg.setConversationId("AGENT_STATUS");
+        MessageCodec.write(statusMsg, new AgentMessage.AgentStatus(state, currentPackages.size(), maxCapacity, timeToMaster));
+        statusMsg.addReceiver(new AID("MasterAgent", AID.ISLOCALNAME));
+        send(statusMsg);
     }
 
     // ============================================================
@@ -736,12 +975,12 @@ public class DeliveryAgent extends Agent {
     @Override
     protected void takeDown() {
         if (deliveryTimer != null) {
-            deliveryTimer.stop();
+            deliveryTimer.cancel();
         }
         if (returnTimer != null) {
-            returnTimer.stop();
+            returnTimer.cancel();
         }
 
-        System.out.println(getLocalName() + ": Agent terminating");
+        EventLog.info(getLocalName(), "agent.terminating");
     }
 }
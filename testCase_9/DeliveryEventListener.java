@@ -0,0 +1,106 @@
+package testCase_3;
+
+/**
+ * DeliveryEventListener.java
+ *
+ * Receives state changes from MasterAgent and DeliveryAgent.
+ *
+ * The agents only talk to this interface, never to Swing directly:
+ * - SwingEventListener forwards every event to DeliveryGUI on the EDT
+ * - NONE drops everything (headless runs on servers without a display)
+ * - ThroughputHarness counts auctions, trades and messages
+ *
+ * Methods are called on agent / clock threads and must not block.
+ */
+public interface DeliveryEventListener {
+
+    /**
+     * Listener that ignores every event (headless mode)
+     */
+    DeliveryEventListener NONE = new DeliveryEventListener() {
+    };
+
+    /**
+     * A line for the system message log
+     */
+    default void onMessage(String message) {
+    }
+
+    /**
+     * @param displayName - Agent display name (e.g., "Agent1 (P:5, Cap:2)")
+     */
+    default void onAgentRegistered(String displayName) {
+    }
+
+    /**
+     * A new package is waiting at the depot
+     */
+    default void onPackageCreated(String packageName, int deliveryTime) {
+    }
+
+    /**
+     * A package left the available queue (auction won)
+     */
+    default void onPackageAssigned(String packageName) {
+    }
+
+    /**
+     * A package was picked up and is now being delivered
+     */
+    default void onPackagePickedUp(String packageName, String agentName) {
+    }
+
+    /**
+     * A package reached its destination
+     */
+    default void onPackageDelivered(String packageName) {
+    }
+
+    /**
+     * Full status snapshot of one delivery agent
+     *
+     * @param displayName - Agent display name
+     * @param state - IDLE, BIDDING, DELIVERING, RETURNING or TRADING
+     * @param packages - Comma separated package names (or null if none)
+     * @param load - Number of packages carried
+     * @param capacity - Maximum number of packages
+     * @param timeToMaster - Seconds until back at the depot
+     * @param deliveryTime - Seconds of delivery left over all carried packages
+     */
+    default void onAgentUpdate(String displayName, String state, String packages,
+                               int load, int capacity, int timeToMaster, int deliveryTime) {
+    }
+
+    /**
+     * CFP sent for an auction (single package or batch)
+     *
+     * @param packages - Number of packages offered
+     */
+    default void onAuctionStarted(String auctionId, int packages) {
+    }
+
+    /**
+     * Auction window closed and winners were selected
+     *
+     * @param awarded - Number of packages assigned (0 if the auction failed)
+     */
+    default void onAuctionClosed(String auctionId, int awarded) {
+    }
+
+    /**
+     * Outcome of a package trade reported to the Master
+     *
+     * @param carrier - Agent that held the package
+     * @param requester - Agent that asked for it
+     */
+    default void onTradeResult(String packageName, String carrier, String requester, boolean accepted) {
+    }
+
+    /**
+     * An agent took an ACL message from its queue
+     *
+     * @param performative - ACLMessage performative constant
+     */
+    default void onAclMessage(String agentName, int performative) {
+    }
+}
@@ -1,9 +1,13 @@
 package testCase_3;
 
 import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableRowSorter;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
 import java.awt.*;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 /**
  * DeliveryGUI.java
@@ -12,11 +16,15 @@ import java.util.Map;
  *
  * Display Components:
  * - Master Panel: Shows available and in-delivery packages
- * - Agent Panels: Shows each agent's status, capacity, and current packages
+ * - Agent Table: Shows each agent's status, capacity, and current packages
  * - Message Log: Shows system events and auction results
  *
  * The GUI is updated in real-time as the system operates.
  * All updates must be called on the Event Dispatch Thread (EDT).
+ *
+ * Agents are rows of a sortable table (AgentTableModel); each row also lists
+ * its recent status transitions, so states that last only milliseconds
+ * (production latency profile) are still visible.
  */
 public class DeliveryGUI extends JFrame {
 
@@ -30,19 +38,19 @@ public class DeliveryGUI extends JFrame {
     private JPanel masterPanel;
 
     /**
-     * Panel for available packages (ready for pickup)
+     * Packages ready for pickup; only visible rows are rendered
      */
-    private JPanel availablePackagesPanel;
+    private PackageListModel availablePackages;
 
     /**
-     * Panel for packages being delivered
+     * Packages being delivered, with their carrying agent
      */
-    private JPanel deliveringPackagesPanel;
+    private PackageListModel deliveringPackages;
 
     /**
-     * Panel containing all agent displays
+     * Agent status table, one row per agent; sortable by any column
      */
-    private JPanel agentsPanel;
+    private JTable agentsTable;
 
     /**
      * Text area for system messages and logs
@@ -54,22 +62,14 @@ public class DeliveryGUI extends JFrame {
     // ============================================================
 
     /**
-     * Map of agent display components
-     * Key: agentName, Value: array of [timeToMasterLabel, deliveryTimeLabel, statusLabel, packageLabel, capacityLabel]
-     */
-    private Map<String, JLabel[]> agentLabels;
-
-    /**
-     * Map of available package panels
-     * Key: packageName, Value: JPanel
+     * Live status of every agent, coalesced into one table update per frame
      */
-    private Map<String, JPanel> availablePackagePanels;
+    private AgentTableModel agentModel;
 
     /**
-     * Map of delivering package panels
-     * Key: packageName, Value: JPanel
+     * Oldest log lines are evicted beyond this
      */
-    private Map<String, JPanel> deliveringPackagePanels;
+    private static final int MAX_LOG_LINES = 2000;
 
     // ============================================================
     // CONSTRUCTOR
@@ -79,9 +79,9 @@ public class DeliveryGUI extends JFrame {
      * Constructor - Initialize and display GUI
      */
     public DeliveryGUI() {
-        agentLabels = new HashMap<>();
-        availablePackagePanels = new HashMap<>();
-        deliveringPackagePanels = new HashMap<>();
+        agentModel = new AgentTableModel();
+        availablePackages = new PackageListModel();
+        deliveringPackages = new PackageListModel();
 
         initializeWindow();
         createMasterPanel();
@@ -121,11 +121,10 @@ public class DeliveryGUI extends JFrame {
                 BorderFactory.createLineBorder(new Color(34, 139, 34), 2),
                 "Available for Pickup"));
 
-        availablePackagesPanel = new JPanel();
-        availablePackagesPanel.setLayout(new BoxLayout(availablePackagesPanel, BoxLayout.Y_AXIS));
-        availablePackagesPanel.setBackground(Color.WHITE);
+        JList<PackageListModel.Entry> availableList = createPackageList(availablePackages,
+                new PackageCellRenderer(false), 35);
 
-        JScrollPane availableScroll = new JScrollPane(availablePackagesPanel);
+        JScrollPane availableScroll = new JScrollPane(availableList);
         availableScroll.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         availableSection.add(availableScroll, BorderLayout.CENTER);
 
@@ -135,11 +134,10 @@ public class DeliveryGUI extends JFrame {
                 BorderFactory.createLineBorder(new Color(30, 144, 255), 2),
                 "Being Delivered"));
 
-        deliveringPackagesPanel = new JPanel();
-        deliveringPackagesPanel.setLayout(new BoxLayout(deliveringPackagesPanel, BoxLayout.Y_AXIS));
-        deliveringPackagesPanel.setBackground(Color.WHITE);
+        JList<PackageListModel.Entry> deliveringList = createPackageList(deliveringPackages,
+                new PackageCellRenderer(true), 45);
 
-        JScrollPane deliveringScroll = new JScrollPane(deliveringPackagesPanel);
+        JScrollPane deliveringScroll = new JScrollPane(deliveringList);
         deliveringScroll.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         deliveringSection.add(deliveringScroll, BorderLayout.CENTER);
 
@@ -151,17 +149,44 @@ public class DeliveryGUI extends JFrame {
     }
 
     /**
-     * Create agents panel container
-     * Individual agent panels added dynamically via addAgent()
+     * Fixed cell size, so the list never measures rows that are not on screen
+     */
+    private JList<PackageListModel.Entry> createPackageList(PackageListModel model,
+                                                            PackageCellRenderer renderer, int cellHeight) {
+        JList<PackageListModel.Entry> list = new JList<>(model);
+        list.setCellRenderer(renderer);
+        list.setFixedCellWidth(210);
+        list.setFixedCellHeight(cellHeight);
+        list.setBackground(Color.WHITE);
+        list.setFocusable(false);
+        return list;
+    }
+
+    /**
+     * Create agent status table
+     * Rows added dynamically via addAgent(); click a header to sort
      */
     private void createAgentsPanel() {
-        agentsPanel = new JPanel(new GridLayout(1, 7, 10, 10));
-        agentsPanel.setBorder(BorderFactory.createTitledBorder(
+        agentsTable = new JTable(agentModel);
+        agentsTable.setAutoCreateRowSorter(true);
+        ((TableRowSorter<?>) agentsTable.getRowSorter()).setSortsOnUpdates(true);
+        agentsTable.setRowHeight(22);
+        agentsTable.setFillsViewportHeight(true);
+        agentsTable.setFont(new Font("Arial", Font.PLAIN, 11));
+        agentsTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 11));
+        agentsTable.setDefaultRenderer(Object.class, new AgentCellRenderer());
+        agentsTable.setDefaultRenderer(Integer.class, new AgentCellRenderer());
+        agentsTable.getColumnModel().getColumn(AgentTableModel.COL_AGENT).setPreferredWidth(140);
+        agentsTable.getColumnModel().getColumn(AgentTableModel.COL_PACKAGES).setPreferredWidth(140);
+        agentsTable.getColumnModel().getColumn(AgentTableModel.COL_RECENT).setPreferredWidth(220);
+
+        JScrollPane agentsScroll = new JScrollPane(agentsTable);
+        agentsScroll.setBorder(BorderFactory.createTitledBorder(
                 BorderFactory.createLineBorder(Color.GRAY, 2),
                 "Delivery Agents - Live Status"));
-        agentsPanel.setBackground(new Color(245, 245, 245));
+        agentsScroll.getViewport().setBackground(new Color(245, 245, 245));
 
-        add(agentsPanel, BorderLayout.CENTER);
+        add(agentsScroll, BorderLayout.CENTER);
     }
 
     /**
@@ -197,29 +222,7 @@ public class DeliveryGUI extends JFrame {
     public void addAvailablePackage(String packageName, int deliveryTime) {
         assert SwingUtilities.isEventDispatchThread() : "Must be called on EDT";
 
-        JPanel pkgPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 5));
-        pkgPanel.setMaximumSize(new Dimension(220, 35));
-        pkgPanel.setBorder(BorderFactory.createLineBorder(new Color(34, 139, 34), 1));
-        pkgPanel.setBackground(new Color(240, 255, 240));
-
-        // Package icon (using text instead of emoji)
-        JLabel iconLabel = new JLabel("[PKG]");
-        iconLabel.setFont(new Font("Arial", Font.BOLD, 12));
-        iconLabel.setForeground(new Color(34, 139, 34));
-
-        // Package info
-        JLabel pkgLabel = new JLabel(packageName + ": " + deliveryTime + "s");
-        pkgLabel.setFont(new Font("Arial", Font.PLAIN, 12));
-
-        pkgPanel.add(iconLabel);
-        pkgPanel.add(pkgLabel);
-
-        availablePackagePanels.put(packageName, pkgPanel);
-        availablePackagesPanel.add(pkgPanel);
-        availablePackagesPanel.add(Box.createRigidArea(new Dimension(0, 3)));
-
-        availablePackagesPanel.revalidate();
-        availablePackagesPanel.repaint();
+        availablePackages.put(packageName, deliveryTime + "s");
     }
 
     /**
@@ -231,13 +234,7 @@ public class DeliveryGUI extends JFrame {
     public void removeAvailablePackage(String packageName) {
         assert SwingUtilities.isEventDispatchThread() : "Must be called on EDT";
 
-        JPanel pkgPanel = availablePackagePanels.get(packageName);
-        if (pkgPanel != null) {
-            availablePackagesPanel.remove(pkgPanel);
-            availablePackagePanels.remove(packageName);
-            availablePackagesPanel.revalidate();
-            availablePackagesPanel.repaint();
-        }
+        availablePackages.remove(packageName);
     }
 
     /**
@@ -250,42 +247,7 @@ public class DeliveryGUI extends JFrame {
     public void addDeliveringPackage(String packageName, String agentName) {
         assert SwingUtilities.isEventDispatchThread() : "Must be called on EDT";
 
-        JPanel pkgPanel = new JPanel(new BorderLayout(5, 5));
-        pkgPanel.setMaximumSize(new Dimension(220, 45));
-        pkgPanel.setBorder(BorderFactory.createLineBorder(new Color(30, 144, 255), 1));
-        pkgPanel.setBackground(new Color(240, 248, 255));
-
-        // Delivery icon (using text)
-        JLabel iconLabel = new JLabel("[DELIVERING]");
-        iconLabel.setFont(new Font("Arial", Font.BOLD, 10));
-        iconLabel.setForeground(new Color(30, 144, 255));
-        iconLabel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
-
-        // Package and agent info
-        JPanel textPanel = new JPanel();
-        textPanel.setLayout(new BoxLayout(textPanel, BoxLayout.Y_AXIS));
-        textPanel.setOpaque(false);
-        textPanel.setBorder(BorderFactory.createEmptyBorder(5, 0, 5, 5));
-
-        JLabel pkgLabel = new JLabel(packageName);
-        pkgLabel.setFont(new Font("Arial", Font.BOLD, 12));
-
-        JLabel agentLabel = new JLabel("-> " + agentName);
-        agentLabel.setFont(new Font("Arial", Font.PLAIN, 10));
-        agentLabel.setForeground(Color.GRAY);
-
-        textPanel.add(pkgLabel);
-        textPanel.add(agentLabel);
-
-        pkgPanel.add(iconLabel, BorderLayout.WEST);
-        pkgPanel.add(textPanel, BorderLayout.CENTER);
-
-        deliveringPackagePanels.put(packageName, pkgPanel);
-        deliveringPackagesPanel.add(pkgPanel);
-        deliveringPackagesPanel.add(Box.createRigidArea(new Dimension(0, 3)));
-
-        deliveringPackagesPanel.revalidate();
-        deliveringPackagesPanel.repaint();
+        deliveringPackages.put(packageName, agentName);
     }
 
     /**
@@ -297,12 +259,72 @@ public class DeliveryGUI extends JFrame {
     public void removeDeliveringPackage(String packageName) {
         assert SwingUtilities.isEventDispatchThread() : "Must be called on EDT";
 
-        JPanel pkgPanel = deliveringPackagePanels.get(packageName);
-        if (pkgPanel != null) {
-            deliveringPackagesPanel.remove(pkgPanel);
-            deliveringPackagePanels.remove(packageName);
-            deliveringPackagesPanel.revalidate();
-            deliveringPackagesPanel.repaint();
+        deliveringPackages.remove(packageName);
+    }
+
+    /**
+     * One component reused to paint every visible package row, styled like
+     * the per-package panels it replaces
+     */
+    private static class PackageCellRenderer extends JPanel implements ListCellRenderer<PackageListModel.Entry> {
+
+        private static final Color AVAILABLE_COLOR = new Color(34, 139, 34);
+        private static final Color DELIVERING_COLOR = new Color(30, 144, 255);
+
+        private final boolean delivering;
+        private final JLabel iconLabel;
+        private final JLabel pkgLabel = new JLabel();
+        private final JLabel detailLabel = new JLabel();
+
+        PackageCellRenderer(boolean delivering) {
+            this.delivering = delivering;
+            Color color = delivering ? DELIVERING_COLOR : AVAILABLE_COLOR;
+
+            setBorder(BorderFactory.createCompoundBorder(
+                    BorderFactory.createEmptyBorder(0, 0, 3, 0),
+                    BorderFactory.createLineBorder(color, 1)));
+            setBackground(delivering ? new Color(240, 248, 255) : new Color(240, 255, 240));
+
+            iconLabel = new JLabel(delivering ? "[DELIVERING]" : "[PKG]");
+            iconLabel.setFont(new Font("Arial", Font.BOLD, delivering ? 10 : 12));
+            iconLabel.setForeground(color);
+
+            if (delivering) {
+                // Package name above "-> agent"
+                setLayout(new BorderLayout(5, 5));
+                iconLabel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+
+                JPanel textPanel = new JPanel();
+                textPanel.setLayout(new BoxLayout(textPanel, BoxLayout.Y_AXIS));
+                textPanel.setOpaque(false);
+                textPanel.setBorder(BorderFactory.createEmptyBorder(5, 0, 5, 5));
+                pkgLabel.setFont(new Font("Arial", Font.BOLD, 12));
+                detailLabel.setFont(new Font("Arial", Font.PLAIN, 10));
+                detailLabel.setForeground(Color.GRAY);
+                textPanel.add(pkgLabel);
+                textPanel.add(detailLabel);
+
+                add(iconLabel, BorderLayout.WEST);
+                add(textPanel, BorderLayout.CENTER);
+            } else {
+                setLayout(new FlowLayout(FlowLayout.LEFT, 5, 5));
+                pkgLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+                add(iconLabel);
+                add(pkgLabel);
+            }
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends PackageListModel.Entry> list,
+                                                      PackageListModel.Entry entry, int index,
+                                                      boolean isSelected, boolean cellHasFocus) {
+            if (delivering) {
+                pkgLabel.setText(entry.packageName());
+                detailLabel.setText("-> " + entry.detail());
+            } else {
+                pkgLabel.setText(entry.packageName() + ": " + entry.detail());
+            }
+            return this;
         }
     }
 
@@ -312,7 +334,7 @@ public class DeliveryGUI extends JFrame {
 
     /**
      * Add an agent to the display
-     * Creates a panel showing agent status
+     * Adds a row to the agent status table
      * Must be called on EDT
      *
      * @param agentName - Full display name with priority and capacity (e.g., "Agent1 (P:5, Cap:2)")
@@ -320,217 +342,172 @@ public class DeliveryGUI extends JFrame {
     public void addAgent(String agentName) {
         assert SwingUtilities.isEventDispatchThread() : "Must be called on EDT";
 
-        JPanel agentPanel = new JPanel();
-        agentPanel.setLayout(new BoxLayout(agentPanel, BoxLayout.Y_AXIS));
-        agentPanel.setBackground(Color.WHITE);
-
-        // Determine border color based on priority
-        Color borderColor = Color.GRAY;
-        if (agentName.contains("P:5")) {
-            borderColor = new Color(255, 215, 0);  // Gold
-        } else if (agentName.contains("P:4")) {
-            borderColor = new Color(192, 192, 192);  // Silver
-        } else if (agentName.contains("P:3")) {
-            borderColor = new Color(205, 127, 50);  // Bronze
-        } else if (agentName.contains("P:2")) {
-            borderColor = new Color(176, 196, 222);  // Light Steel Blue
-        }
-
-        agentPanel.setBorder(BorderFactory.createTitledBorder(
-                BorderFactory.createLineBorder(borderColor, 3),
-                agentName,
-                javax.swing.border.TitledBorder.CENTER,
-                javax.swing.border.TitledBorder.TOP,
-                new Font("Arial", Font.BOLD, 11)));
-
-        // Create labels for agent information
-        JLabel packageLabel = createStyledLabel("Package: None", new Color(240, 248, 255));
-        JLabel timeToMasterLabel = createStyledLabel("Time to Master: 0s", Color.WHITE);
-        JLabel deliveryTimeLabel = createStyledLabel("Delivery Time: 0s", Color.WHITE);
-        JLabel capacityLabel = createStyledLabel("Load: 0/0", Color.WHITE);
-        JLabel statusLabel = createStyledLabel("Status: Idle", new Color(200, 200, 200));
-
-        // Make status label more prominent
-        statusLabel.setFont(new Font("Arial", Font.BOLD, 11));
-        packageLabel.setFont(new Font("Arial", Font.BOLD, 11));
-
-        // Add labels to panel with spacing
-        agentPanel.add(packageLabel);
-        agentPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-        agentPanel.add(capacityLabel);
-        agentPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-        agentPanel.add(timeToMasterLabel);
-        agentPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-        agentPanel.add(deliveryTimeLabel);
-        agentPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-        agentPanel.add(statusLabel);
-        agentPanel.add(Box.createVerticalGlue());  // Push content to top
-
-        agentsPanel.add(agentPanel);
-        agentsPanel.revalidate();
-        agentsPanel.repaint();
-
-        // Store label references: [timeToMaster, deliveryTime, status, package, capacity]
-        agentLabels.put(agentName, new JLabel[]{timeToMasterLabel, deliveryTimeLabel, statusLabel, packageLabel, capacityLabel});
-    }
-
-    /**
-     * Helper method to create styled labels
-     *
-     * @param text - Label text
-     * @param bgColor - Background color
-     * @return Styled JLabel
-     */
-    private JLabel createStyledLabel(String text, Color bgColor) {
-        JLabel label = new JLabel(text, SwingConstants.CENTER);
-        label.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(Color.LIGHT_GRAY, 1),
-                BorderFactory.createEmptyBorder(6, 4, 6, 4)
-        ));
-        label.setOpaque(true);
-        label.setBackground(bgColor);
-        label.setFont(new Font("Arial", Font.PLAIN, 10));
-        label.setMaximumSize(new Dimension(Integer.MAX_VALUE, 30));
-        return label;
+        agentModel.addAgent(agentName);
     }
 
     /**
-     * Update agent time displays
+     * Render a frame's worth of agent snapshots with one table update
      * Must be called on EDT
      *
-     * @param agentName - Agent display name
-     * @param timeToMaster - Time to return to master
-     * @param deliveryTime - Time remaining for delivery
+     * @param snapshots - Agents whose version changed since the last frame
      */
-    public void updateAgentTimes(String agentName, int timeToMaster, int deliveryTime) {
+    public void updateAgents(List<AgentSnapshotStore.Snapshot> snapshots) {
         assert SwingUtilities.isEventDispatchThread() : "Must be called on EDT";
 
-        JLabel[] labels = agentLabels.get(agentName);
-        if (labels != null) {
-            labels[0].setText("Time to Master: " + timeToMaster + "s");
-            labels[1].setText("Delivery Time: " + deliveryTime + "s");
-
-            // Update status based on times
-            if (timeToMaster > 0) {
-                labels[2].setText("Status: Returning");
-                labels[2].setForeground(Color.WHITE);
-                labels[2].setBackground(new Color(255, 140, 0));  // Orange
-            } else if (deliveryTime > 0) {
-                labels[2].setText("Status: Delivering");
-                labels[2].setForeground(Color.WHITE);
-                labels[2].setBackground(new Color(30, 144, 255));  // Blue
-            } else {
-                labels[2].setText("Status: Idle");
-                labels[2].setForeground(Color.BLACK);
-                labels[2].setBackground(new Color(200, 200, 200));  // Gray
-            }
+        for (AgentSnapshotStore.Snapshot snapshot : snapshots) {
+            agentModel.apply(snapshot);
         }
+        agentModel.flush();
     }
 
     /**
-     * Update agent status display
-     * Must be called on EDT
-     *
-     * @param agentName - Agent display name
-     * @param status - Status string (IDLE, DELIVERING, RETURNING, TRADING, BIDDING)
+     * Agent table cells, color coded like the old agent panels:
+     * priority (gold / silver / bronze), state and load
      */
-    public void updateAgentStatus(String agentName, String status) {
-        assert SwingUtilities.isEventDispatchThread() : "Must be called on EDT";
+    private class AgentCellRenderer extends DefaultTableCellRenderer {
+
+        AgentCellRenderer() {
+            setHorizontalAlignment(SwingConstants.CENTER);
+        }
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int column) {
+            AgentTableModel.AgentRow agent = agentModel.rowAt(table.convertRowIndexToModel(row));
+            int modelColumn = table.convertColumnIndexToModel(column);
+
+            Object text = value;
+            switch (modelColumn) {
+                case AgentTableModel.COL_LOAD:
+                    text = agent.load + "/" + agent.capacity;
+                    break;
+                case AgentTableModel.COL_TIME_TO_MASTER:
+                case AgentTableModel.COL_DELIVERY_TIME:
+                    text = value + "s";
+                    break;
+                default:
+                    break;
+            }
+            super.getTableCellRendererComponent(table, text, isSelected, hasFocus, row, column);
+
+            setFont(modelColumn == AgentTableModel.COL_STATE || modelColumn == AgentTableModel.COL_AGENT
+                    ? table.getFont().deriveFont(Font.BOLD) : table.getFont());
+            setForeground(Color.BLACK);
+            setBackground(isSelected ? table.getSelectionBackground() : Color.WHITE);
+
+            switch (modelColumn) {
+                case AgentTableModel.COL_PRIORITY:
+                    setBackground(priorityColor(agent.priority));
+                    break;
+                case AgentTableModel.COL_STATE:
+                    setStateColors(agent.state);
+                    break;
+                case AgentTableModel.COL_LOAD:
+                    if (agent.load >= agent.capacity) {
+                        setBackground(new Color(255, 200, 200));  // Red - full
+                    } else if (agent.load > 0) {
+                        setBackground(new Color(255, 255, 200));  // Yellow - partial
+                    }
+                    break;
+                case AgentTableModel.COL_PACKAGES:
+                    setForeground(agent.packages != null ? new Color(0, 100, 0) : Color.GRAY);
+                    break;
+                case AgentTableModel.COL_RECENT:
+                    setForeground(Color.DARK_GRAY);
+                    setToolTipText(String.valueOf(value));
+                    return this;
+                default:
+                    break;
+            }
+            setToolTipText(null);
+            return this;
+        }
+
+        private Color priorityColor(int priority) {
+            switch (priority) {
+                case 5:
+                    return new Color(255, 215, 0);  // Gold
+                case 4:
+                    return new Color(192, 192, 192);  // Silver
+                case 3:
+                    return new Color(205, 127, 50);  // Bronze
+                case 2:
+                    return new Color(176, 196, 222);  // Light Steel Blue
+                default:
+                    return Color.WHITE;
+            }
+        }
 
-        JLabel[] labels = agentLabels.get(agentName);
-        if (labels != null) {
-            labels[2].setText("Status: " + status);
-            
-            // Color code based on status
-            switch (status) {
+        private void setStateColors(String state) {
+            switch (state) {
                 case "TRADING":
-                    labels[2].setForeground(Color.WHITE);
-                    labels[2].setBackground(new Color(255, 0, 255));  // Magenta - very visible!
+                    setForeground(Color.WHITE);
+                    setBackground(new Color(255, 0, 255));  // Magenta - very visible!
                     break;
                 case "BIDDING":
-                    labels[2].setForeground(Color.WHITE);
-                    labels[2].setBackground(new Color(128, 0, 128));  // Purple
+                    setForeground(Color.WHITE);
+                    setBackground(new Color(128, 0, 128));  // Purple
                     break;
                 case "DELIVERING":
-                    labels[2].setForeground(Color.WHITE);
-                    labels[2].setBackground(new Color(30, 144, 255));  // Blue
+                    setForeground(Color.WHITE);
+                    setBackground(new Color(30, 144, 255));  // Blue
                     break;
                 case "RETURNING":
-                    labels[2].setForeground(Color.WHITE);
-                    labels[2].setBackground(new Color(255, 140, 0));  // Orange
+                    setForeground(Color.WHITE);
+                    setBackground(new Color(255, 140, 0));  // Orange
                     break;
                 case "IDLE":
                 default:
-                    labels[2].setForeground(Color.BLACK);
-                    labels[2].setBackground(new Color(200, 200, 200));  // Gray
+                    setForeground(Color.BLACK);
+                    setBackground(new Color(200, 200, 200));  // Gray
                     break;
             }
         }
     }
 
+    // ============================================================
+    // MESSAGE LOG METHODS
+    // ============================================================
+
     /**
-     * Update agent package display
+     * Add a message to the log area
      * Must be called on EDT
      *
-     * @param agentName - Agent display name
-     * @param packageName - Package name (or null if none)
+     * @param message - Message text to add
      */
-    public void updateAgentPackage(String agentName, String packageName) {
-        assert SwingUtilities.isEventDispatchThread() : "Must be called on EDT";
-
-        JLabel[] labels = agentLabels.get(agentName);
-        if (labels != null) {
-            if (packageName != null && !packageName.isEmpty()) {
-                labels[3].setText("Package: " + packageName);
-                labels[3].setForeground(new Color(0, 100, 0));
-            } else {
-                labels[3].setText("Package: None");
-                labels[3].setForeground(Color.GRAY);
-            }
-        }
+    public void addMessage(String message) {
+        addMessages(List.of(message));
     }
 
     /**
-     * Update agent capacity display
+     * Add a batch of messages with a single append, then evict the oldest
+     * lines beyond MAX_LOG_LINES
      * Must be called on EDT
      *
-     * @param agentName - Agent display name
-     * @param currentLoad - Current number of packages
-     * @param maxCapacity - Maximum capacity
+     * @param messages - Message lines, oldest first
      */
-    public void updateAgentCapacity(String agentName, int currentLoad, int maxCapacity) {
+    public void addMessages(List<String> messages) {
         assert SwingUtilities.isEventDispatchThread() : "Must be called on EDT";
 
-        JLabel[] labels = agentLabels.get(agentName);
-        if (labels != null) {
-            labels[4].setText("Load: " + currentLoad + "/" + maxCapacity);
-
-            // Color code based on load
-            if (currentLoad >= maxCapacity) {
-                labels[4].setBackground(new Color(255, 200, 200));  // Red - full
-            } else if (currentLoad > 0) {
-                labels[4].setBackground(new Color(255, 255, 200));  // Yellow - partial
-            } else {
-                labels[4].setBackground(Color.WHITE);  // White - empty
+        StringBuilder text = new StringBuilder();
+        for (String message : messages) {
+            text.append(message).append('\n');
+        }
+        logArea.append(text.toString());
+
+        Document doc = logArea.getDocument();
+        Element root = doc.getDefaultRootElement();
+        // The last element is the empty line after the final newline
+        int excess = root.getElementCount() - 1 - MAX_LOG_LINES;
+        if (excess > 0) {
+            try {
+                doc.remove(0, root.getElement(excess - 1).getEndOffset());
+            } catch (BadLocationException e) {
+                logArea.setText("");
             }
         }
-    }
-
-    // ============================================================
-    // MESSAGE LOG METHODS
-    // ============================================================
-
-    /**
-     * Add a message to the log area
-     * Must be called on EDT
-     *
-     * @param message - Message text to add
-     */
-    public void addMessage(String message) {
-        assert SwingUtilities.isEventDispatchThread() : "Must be called on EDT";
 
-        logArea.append(message + "\n");
-        logArea.setCaretPosition(logArea.getDocument().getLength());
+        logArea.setCaretPosition(doc.getLength());
     }
 
     /**
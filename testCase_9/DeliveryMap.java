@@ -0,0 +1,119 @@
+package testCase_3;
+
+import java.util.Random;
+
+/**
+ * DeliveryMap.java
+ *
+ * Geography shared by the Master and every delivery agent: the depot and a
+ * fixed set of customer locations on a square service area.
+ *
+ * - Node 0 is the depot in the middle of the area, nodes 1..n are customers
+ *   placed at random (same seed, same map in every JVM)
+ * - Distances (Euclidean, km) and travel times (whole seconds, at least 1
+ *   between different nodes) are computed once into flat row-major arrays,
+ *   so a lookup is one array access
+ * - Every package is delivered to one customer node; its delivery time is
+ *   the travel time from the depot, and an agent's route and return time
+ *   are sums of matrix entries
+ *
+ * Configuration:
+ *   -Dvrp.map.locations=200    (customer nodes)
+ *   -Dvrp.map.seed=7
+ *
+ * Immutable once built, so it is read from any thread without locking.
+ */
+public final class DeliveryMap {
+
+    public static final int DEPOT = 0;
+
+    // Service area side (km) and driving pace: the far corner is ~14s from the depot
+    private static final double AREA_KM = 10.0;
+    private static final double SECONDS_PER_KM = 2.0;
+
+    private static volatile DeliveryMap current;
+
+    private final int size;
+    private final double[] x;
+    private final double[] y;
+    private final double[] distanceKm;
+    private final int[] travelSeconds;
+
+    /**
+     * @param locations - Customer nodes, not counting the depot
+     */
+    DeliveryMap(int locations, long seed) {
+        size = locations + 1;
+        x = new double[size];
+        y = new double[size];
+
+        x[DEPOT] = AREA_KM / 2;
+        y[DEPOT] = AREA_KM / 2;
+        Random random = new Random(seed);
+        for (int node = 1; node < size; node++) {
+            x[node] = random.nextDouble() * AREA_KM;
+            y[node] = random.nextDouble() * AREA_KM;
+        }
+
+        distanceKm = new double[size * size];
+        travelSeconds = new int[size * size];
+        for (int from = 0; from < size; from++) {
+            for (int to = from + 1; to < size; to++) {
+                double km = Math.hypot(x[from] - x[to], y[from] - y[to]);
+                int seconds = Math.max(1, (int) Math.round(km * SECONDS_PER_KM));
+                distanceKm[from * size + to] = km;
+                distanceKm[to * size + from] = km;
+                travelSeconds[from * size + to] = seconds;
+                travelSeconds[to * size + from] = seconds;
+            }
+        }
+    }
+
+    /**
+     * Map selected with -Dvrp.map.locations / -Dvrp.map.seed, built on first use
+     */
+    public static DeliveryMap get() {
+        DeliveryMap map = current;
+        if (map == null) {
+            synchronized (DeliveryMap.class) {
+                map = current;
+                if (map == null) {
+                    map = new DeliveryMap(Integer.getInteger("vrp.map.locations", 200),
+                            Long.getLong("vrp.map.seed", 7));
+                    current = map;
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Nodes including the depot
+     */
+    public int size() {
+        return size;
+    }
+
+    public double x(int node) {
+        return x[node];
+    }
+
+    public double y(int node) {
+        return y[node];
+    }
+
+    public double distanceKm(int from, int to) {
+        return distanceKm[from * size + to];
+    }
+
+    public int travelSeconds(int from, int to) {
+        return travelSeconds[from * size + to];
+    }
+
+    /**
+     * A customer node, uniformly at random
+     */
+    public int randomLocation(Random random) {
+        return 1 + random.nextInt(size - 1);
+    }
+}
@@ -0,0 +1,345 @@
+package testCase_3;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * EventLog.java
+ *
+ * Asynchronous structured event log for agent tracing.
+ *
+ * - Agents call info() / debug() / warn() with an event name and key/value
+ *   pairs; the call only filters by level and enqueues into a LogRingBuffer,
+ *   it never formats, locks or blocks on I/O
+ * - A daemon writer thread formats each event as one JSON line and appends
+ *   the batch to {dir}/events.jsonl through a FileChannel
+ * - The file is rotated at MAX_FILE_BYTES: events.jsonl -> events.jsonl.1 -> ...
+ *   keeping MAX_ROTATED_FILES old files
+ * - When the buffer is full events are dropped and a "log.dropped" event
+ *   reports how many
+ *
+ * Configuration:
+ *   -Dvrp.log.level=DEBUG|INFO|WARN|OFF   (default INFO)
+ *   -Dvrp.log.dir=logs
+ *   -Dvrp.log.console=true                (echo each line on stdout, from the writer thread)
+ */
+public final class EventLog {
+
+    public enum Level { DEBUG, INFO, WARN, OFF }
+
+    private static final int BUFFER_SIZE = 16384;
+    private static final long MAX_FILE_BYTES = 10L * 1024 * 1024;
+    private static final int MAX_ROTATED_FILES = 5;
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+    private static final long IDLE_PARK_NS = 20_000_000L;
+    private static final String FILE_NAME = "events.jsonl";
+
+    private static final Level LEVEL = parseLevel(System.getProperty("vrp.log.level", "INFO"));
+    private static final boolean CONSOLE = Boolean.getBoolean("vrp.log.console");
+
+    /**
+     * One enqueued event; formatted on the writer thread
+     */
+    private record Event(long timeMs, Level level, String source, String event, Object[] fields) {
+    }
+
+    private EventLog() {
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level.ordinal() >= LEVEL.ordinal() && LEVEL != Level.OFF;
+    }
+
+    public static void debug(String source, String event, Object... fields) {
+        log(Level.DEBUG, source, event, fields);
+    }
+
+    public static void info(String source, String event, Object... fields) {
+        log(Level.INFO, source, event, fields);
+    }
+
+    public static void warn(String source, String event, Object... fields) {
+        log(Level.WARN, source, event, fields);
+    }
+
+    /**
+     * @param fields - Alternating keys and values
+     */
+    public static void log(Level level, String source, String event, Object... fields) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        Writer.INSTANCE.buffer.offer(new Event(System.currentTimeMillis(), level, source, event, fields));
+        Writer.INSTANCE.wake();
+    }
+
+    private static Level parseLevel(String value) {
+        try {
+            return Level.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+
+    // ============================================================
+    // WRITER THREAD
+    // ============================================================
+
+    /**
+     * Started on first use, so agents that never log never open a file
+     */
+    private static final class Writer implements Runnable {
+
+        static final Writer INSTANCE = new Writer();
+
+        final LogRingBuffer<Event> buffer = new LogRingBuffer<>(BUFFER_SIZE);
+        private final Path directory = Paths.get(System.getProperty("vrp.log.dir", "logs"));
+        private final Path file = directory.resolve(FILE_NAME);
+        private final Thread thread;
+        private final StringBuilder line = new StringBuilder(256);
+        private final ByteBuffer pending = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+
+        private volatile boolean parked;
+        private volatile boolean stopping;
+        private FileChannel channel;
+        private long fileSize;
+        private boolean fileFailed;
+
+        private Writer() {
+            thread = new Thread(this, "event-log");
+            thread.setDaemon(true);
+            thread.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(this::stop, "event-log-flush"));
+        }
+
+        void wake() {
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            List<Event> batch = new ArrayList<>();
+            while (!stopping) {
+                if (buffer.drainTo(batch) == 0) {
+                    parked = true;
+                    LockSupport.parkNanos(IDLE_PARK_NS);
+                    parked = false;
+                    continue;
+                }
+                write(batch);
+                batch.clear();
+            }
+        }
+
+        /**
+         * Shutdown hook: stop the loop, write what is left and close the file
+         */
+        private void stop() {
+            stopping = true;
+            LockSupport.unpark(thread);
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            List<Event> rest = new ArrayList<>();
+            buffer.drainTo(rest);
+            write(rest);
+            closeChannel();
+        }
+
+        private void write(List<Event> batch) {
+            long dropped = buffer.takeDropped();
+            if (dropped > 0) {
+                batch.add(new Event(System.currentTimeMillis(), Level.WARN, "EventLog", "log.dropped",
+                        new Object[] {"count", dropped}));
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                for (Event event : batch) {
+                    format(event);
+                    if (CONSOLE) {
+                        System.out.print(line);
+                    }
+                    append(line.toString().getBytes(StandardCharsets.UTF_8));
+                }
+                flush();
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        /**
+         * Stage one line, flushing and rotating first if it would not fit
+         */
+        private void append(byte[] bytes) throws IOException {
+            if (fileFailed) {
+                return;
+            }
+            if (pending.position() + bytes.length > pending.capacity()
+                    || fileSize + pending.position() + bytes.length > MAX_FILE_BYTES) {
+                flush();
+            }
+            if (channel == null || (fileSize > 0 && fileSize + bytes.length > MAX_FILE_BYTES)) {
+                rotate();
+            }
+
+            if (bytes.length > pending.capacity()) {
+                writeFully(ByteBuffer.wrap(bytes));
+                fileSize += bytes.length;
+            } else {
+                pending.put(bytes);
+            }
+        }
+
+        private void flush() throws IOException {
+            if (channel == null || pending.position() == 0) {
+                pending.clear();
+                return;
+            }
+            pending.flip();
+            int size = pending.remaining();
+            writeFully(pending);
+            fileSize += size;
+            pending.clear();
+        }
+
+        private void writeFully(ByteBuffer data) throws IOException {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+
+        /**
+         * Close the current file (if any), shift events.jsonl.N up by one and
+         * open a fresh events.jsonl
+         */
+        private void rotate() throws IOException {
+            if (fileFailed) {
+                return;
+            }
+            boolean wasOpen = channel != null;
+            closeChannel();
+
+            Files.createDirectories(directory);
+            if (wasOpen || (Files.exists(file) && Files.size(file) >= MAX_FILE_BYTES)) {
+                Files.deleteIfExists(rotated(MAX_ROTATED_FILES));
+                for (int i = MAX_ROTATED_FILES - 1; i >= 1; i--) {
+                    Path from = rotated(i);
+                    if (Files.exists(from)) {
+                        Files.move(from, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                if (Files.exists(file)) {
+                    Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            fileSize = channel.size();
+        }
+
+        private Path rotated(int index) {
+            return directory.resolve(FILE_NAME + "." + index);
+        }
+
+        private void closeChannel() {
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing left to do with a file that cannot be closed
+            }
+            channel = null;
+        }
+
+        /**
+         * File output is given up after the first I/O error; events still
+         * reach the console when it is enabled
+         */
+        private void fail(IOException e) {
+            if (!fileFailed) {
+                fileFailed = true;
+                System.err.println("EventLog: cannot write " + file + " - " + e.getMessage());
+            }
+            closeChannel();
+        }
+
+        // ============================================================
+        // JSON FORMATTING
+        // ============================================================
+
+        private void format(Event event) {
+            line.setLength(0);
+            line.append("{\"ts\":").append(event.timeMs())
+                .append(",\"level\":\"").append(event.level()).append('"')
+                .append(",\"src\":");
+            appendString(event.source());
+            line.append(",\"event\":");
+            appendString(event.event());
+
+            Object[] fields = event.fields();
+            for (int i = 0; i + 1 < fields.length; i += 2) {
+                line.append(',');
+                appendString(String.valueOf(fields[i]));
+                line.append(':');
+                appendValue(fields[i + 1]);
+            }
+            line.append("}\n");
+        }
+
+        private void appendValue(Object value) {
+            if (value == null) {
+                line.append("null");
+            } else if (value instanceof Boolean || value instanceof Integer || value instanceof Long
+                    || value instanceof Short || value instanceof Byte) {
+                line.append(value);
+            } else if (value instanceof Number number && Double.isFinite(number.doubleValue())) {
+                line.append(value);
+            } else {
+                appendString(String.valueOf(value));
+            }
+        }
+
+        private void appendString(String value) {
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"' -> line.append("\\\"");
+                    case '\\' -> line.append("\\\\");
+                    case '\n' -> line.append("\\n");
+                    case '\r' -> line.append("\\r");
+                    case '\t' -> line.append("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            line.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            line.append(c);
+                        }
+                    }
+                }
+            }
+            line.append('"');
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package testCase_3;
+
+import jade.core.Agent;
+import jade.core.behaviours.OneShotBehaviour;
+
+/**
+ * LatencyProfile.java
+ *
+ * Artificial pauses in the auction and trading protocol.
+ *
+ * - DEMO (default): agents linger so BIDDING / TRADING can be watched in the GUI
+ * - PRODUCTION (-Dvrp.latency=production): every pause is zero and the next
+ *   protocol step runs straight away; the GUI keeps short-lived states
+ *   visible through its per-agent status history instead
+ *
+ * Retry back-offs (e.g. after an auction with no bids) are not part of the
+ * profile; they stop the Master from spinning when nobody can bid.
+ */
+public enum LatencyProfile {
+
+    DEMO(1000, 1500, 1000, 2000, 500),
+    PRODUCTION(0, 0, 0, 0, 0);
+
+    /**
+     * TRADING shown before the QUERY_REF goes to the Master
+     */
+    final long tradeQueryDelayMs;
+
+    /**
+     * Carrier pause between accepting a trade request and handing the package over
+     */
+    final long tradeExecuteDelayMs;
+
+    /**
+     * Requester pause before sending the PROPOSE to a carrier
+     */
+    final long tradeProposeDelayMs;
+
+    /**
+     * TRADING shown after the Master found no partner
+     */
+    final long noPartnerLingerMs;
+
+    /**
+     * Master pause before opening the next auctions
+     */
+    final long auctionStartDelayMs;
+
+    private static volatile LatencyProfile current;
+
+    LatencyProfile(long tradeQueryDelayMs, long tradeExecuteDelayMs, long tradeProposeDelayMs,
+                   long noPartnerLingerMs, long auctionStartDelayMs) {
+        this.tradeQueryDelayMs = tradeQueryDelayMs;
+        this.tradeExecuteDelayMs = tradeExecuteDelayMs;
+        this.tradeProposeDelayMs = tradeProposeDelayMs;
+        this.noPartnerLingerMs = noPartnerLingerMs;
+        this.auctionStartDelayMs = auctionStartDelayMs;
+    }
+
+    /**
+     * Profile selected with -Dvrp.latency=demo|production
+     */
+    public static LatencyProfile get() {
+        LatencyProfile profile = current;
+        if (profile == null) {
+            profile = "production".equalsIgnoreCase(System.getProperty("vrp.latency", "demo"))
+                    ? PRODUCTION : DEMO;
+            current = profile;
+        }
+        return profile;
+    }
+
+    /**
+     * Run the action on the agent thread after delayMs of simulated time, or
+     * as the next behaviour if the delay is zero
+     */
+    public static void runAfter(Agent agent, long delayMs, Runnable action) {
+        if (delayMs <= 0) {
+            agent.addBehaviour(new OneShotBehaviour(agent) {
+                @Override
+                public void action() {
+                    action.run();
+                }
+            });
+            return;
+        }
+
+        SimulationClock.get().schedule(agent, delayMs, action);
+    }
+}
@@ -0,0 +1,90 @@
+package testCase_3;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * LogRingBuffer.java
+ *
+ * Bounded lock-free queue of log entries: many producers (agent and clock
+ * threads), one consumer (the EDT drain timer, the EventLog writer thread).
+ *
+ * - offer() never blocks; when the buffer is full the entry is dropped and counted
+ * - Producers claim a slot with a CAS on tail, then publish the entry into it
+ * - The consumer stops at the first claimed-but-unpublished slot and picks
+ *   it up on the next drain
+ */
+public class LogRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+    // Written by the consumer only
+    private volatile long head;
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * @param capacity - Rounded up to a power of two
+     */
+    public LogRingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return false if the buffer was full and the entry was dropped
+     */
+    public boolean offer(T entry) {
+        for (;;) {
+            long t = tail.get();
+            if (t - head > mask) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            if (tail.compareAndSet(t, t + 1)) {
+                slots.set((int) t & mask, entry);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Move every published entry to out, oldest first. Single consumer only.
+     *
+     * @return number of entries drained
+     */
+    public int drainTo(List<? super T> out) {
+        long h = head;
+        long t = tail.get();
+        int count = 0;
+
+        while (h < t) {
+            int index = (int) h & mask;
+            T entry = slots.get(index);
+            if (entry == null) {
+                break;  // Slot claimed, not yet written
+            }
+            slots.lazySet(index, null);
+            out.add(entry);
+            h++;
+            count++;
+        }
+
+        head = h;
+        return count;
+    }
+
+    /**
+     * Entries dropped since the last call
+     */
+    public long takeDropped() {
+        return dropped.getAndSet(0);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -7,71 +7,209 @@ import jade.lang.acl.MessageTemplate;
 import jade.core.behaviours.CyclicBehaviour;
 import jade.core.behaviours.OneShotBehaviour;
 
-import javax.swing.SwingUtilities;
-import javax.swing.Timer;
+import java.awt.GraphicsEnvironment;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * MasterAgent.java
  *
  * Central coordinator for the delivery system with auction management.
+ *
+ * Run headless (no DeliveryGUI, no EDT work) with the agent argument "headless",
+ * -Dvrp.headless=true, or on a JVM without a display.
+ *
+ * Auctions run concurrently, one per package (default), or with
+ * -Dvrp.auction=batch the whole queue is offered in one round and assigned
+ * by AssignmentSolver. With -Dvrp.auction=solver there is no bidding: VrpSolver
+ * plans routes for the agents waiting at the depot (-Dvrp.solver.budgetMs,
+ * default 50) and each agent is awarded its whole route. Adding
+ * -Dvrp.solver.incremental=true keeps a RoutePlan instead: new packages are
+ * inserted into the planned routes of the waiting agents, and a route leaves
+ * when it is full or when the planning window closes.
+ *
+ * -Dvrp.latency=production removes the demo pauses between protocol steps
+ * (see LatencyProfile).
+ *
+ * Agent tracing goes to the asynchronous EventLog (logs/events.jsonl);
+ * -Dvrp.log.level=DEBUG adds the per-message traces. -Dvrp.metrics=true
+ * records auction latency, bids, trades and queue depth (see Metrics).
+ *
+ * Agent arguments (besides "headless"):
+ * - initialPackages=N: packages queued at startup (default 12)
+ * - regeneration=off: no replacement package after each delivery
+ * Extra packages can be injected from outside the platform by putting a
+ * PackageArrival into the agent's O2A queue (see ThroughputHarness).
  */
 public class MasterAgent extends Agent {
 
-    public static DeliveryGUI gui;
+    /**
+     * Receives every state change; DeliveryAgents report through it too
+     */
+    public static volatile DeliveryEventListener events = DeliveryEventListener.NONE;
 
     private static final int NUM_AGENTS = 7;
     private static final int NUM_INITIAL_PACKAGES = 12;
     private static final int PACKAGE_REGENERATION_DELAY = 8000;
     private static final int AUCTION_WINDOW_MS = 2000;
+    private static final int TRADE_TOP_K = 3;
+    private static final String LOG_SOURCE = "MasterAgent";
+
+    // "single": one concurrent auction per package, "batch": whole queue in one round,
+    // "solver": routes planned centrally by VrpSolver
+    private static final boolean BATCH_AUCTIONS =
+            "batch".equalsIgnoreCase(System.getProperty("vrp.auction", "single"));
+    private static final boolean SOLVER_DISPATCH =
+            "solver".equalsIgnoreCase(System.getProperty("vrp.auction", "single"));
+    private static final long SOLVER_BUDGET_MS = Long.getLong("vrp.solver.budgetMs", 50);
+    private static final boolean INCREMENTAL_PLANNING = Boolean.getBoolean("vrp.solver.incremental");
 
     private static final int[] AGENT_PRIORITIES = {5, 4, 3, 3, 2, 2, 1};
     private static final int[] AGENT_CAPACITIES = {2, 2, 3, 1, 2, 1, 2};
 
+    // Type and urgency score; the delivery time comes from the destination (DeliveryMap)
     private static final String[][] PACKAGE_TYPES = {
-            {"Urgent", "3", "10"},
-            {"Standard", "7", "5"},
-            {"Bulk", "12", "2"}
+            {"Urgent", "10"},
+            {"Standard", "5"},
+            {"Bulk", "2"}
     };
 
-    private Queue<PackageInfo> availablePackages;
-    private Map<String, String> packagesInDelivery;
-    private int packageCounter;
-    private Map<String, Timer> regenerationTimers;
+    private static final Metrics.Histogram CFP_TO_AWARD = Metrics.histogram("auction.cfpToAward", "us");
+    private static final Metrics.Histogram BIDS_PER_AUCTION = Metrics.histogram("auction.bids", "");
+    private static final Metrics.Counter TRADE_QUERIES = Metrics.counter("trade.queries");
+    private static final Metrics.Counter TRADES_ACCEPTED = Metrics.counter("trade.accepted");
+    private static final Metrics.Counter TRADES_REFUSED = Metrics.counter("trade.refused");
+    private static final Metrics.Counter MESSAGES = Metrics.counter("messages.master");
+    private static final Metrics.Histogram SOLVE_TIME = Metrics.histogram("dispatch.solveTime", "us");
+
+    /**
+     * Object-to-agent request: queue count new packages and auction them
+     */
+    public record PackageArrival(int count) {
+    }
 
-    private AuctionInfo currentAuction;
-    private List<BidInfo> currentBids;
-    private Timer auctionTimer;
+    private int initialPackages = NUM_INITIAL_PACKAGES;
+    private boolean regeneration = true;
 
-    private Set<String> waitingAgents;
+    // Ordered by DISPATCH_ORDER: O(log n) add and poll, so an Urgent
+    // package is auctioned next however long the backlog is
+    private Queue<PackageInfo> availablePackages;
+    private TradeIndex packagesInDelivery;
+    // Awarded package -> delivery time (s), until the winner confirms the pickup
+    private Map<String, Integer> awardedDeliveryTimes;
+    private int packageCounter;
+    private Map<String, SimulationClock.Handle> regenerationTimers;
+
+    // Open auctions keyed by auction id (the ACL conversation id).
+    // Also guards availablePackages, waitingAgents, bidderRegistry and awardedDeliveryTimes:
+    // timers run on the agent thread, but the metrics gauges read them from other threads.
+    private Map<String, AuctionInfo> openAuctions;
+    private BatchAuctionInfo openBatch;
+    private int auctionCounter;
+    private SimulationClock clock;
+    private LatencyProfile latency;
+    private DeliveryMap map;
+    // Incremental solver mode: next trip of each waiting agent, dispatched when
+    // full or when planTimer (started by the first planned package) fires
+    private RoutePlan<PackageInfo> plan;
+    private SimulationClock.Handle planTimer;
+
+    // Agents at the depot -> packages they can still be awarded before leaving
+    private Map<String, Integer> waitingAgents;
+
+    // Latest status pushed by each agent; only agents that can bid receive CFPs
+    private Map<String, AgentMessage.AgentStatus> bidderRegistry;
 
     private class PackageInfo {
         String name;
         int deliveryTime;
         String type;
         int urgencyScore;
+        // Arrival order; kept when the package goes back to the queue
+        int sequence;
+        // Destination node in the DeliveryMap
+        int location;
 
-        PackageInfo(String name, int deliveryTime, String type, int urgencyScore) {
+        PackageInfo(String name, int deliveryTime, String type, int urgencyScore, int sequence, int location) {
             this.name = name;
             this.deliveryTime = deliveryTime;
             this.type = type;
             this.urgencyScore = urgencyScore;
+            this.sequence = sequence;
+            this.location = location;
         }
     }
 
-    private class AuctionInfo {
+    /**
+     * Dispatch order of the package queue: most urgent type first, then the
+     * package that has waited longest. A package returned after a failed
+     * auction keeps its place, so Bulk packages cannot be starved by requeues.
+     */
+    private static final Comparator<PackageInfo> DISPATCH_ORDER =
+            Comparator.comparingInt((PackageInfo pkg) -> -pkg.urgencyScore).thenComparingInt(pkg -> pkg.sequence);
+
+    /**
+     * State shared by single and batch auctions. The timer is only an upper
+     * bound: the auction closes as soon as every expected bidder has answered.
+     */
+    private abstract class OpenAuction {
+        String auctionId;
+        SimulationClock.Handle timer;
+        // Wall-clock time the CFP was sent, for the CFP-to-award latency
+        long cfpNanos;
+        // CFP recipients that were waiting at the depot
+        Set<String> expectedBidders;
+        // Agents that bid or declined
+        Set<String> responded;
+
+        OpenAuction(String auctionId, List<String> bidders) {
+            this.auctionId = auctionId;
+            this.cfpNanos = System.nanoTime();
+            this.expectedBidders = new HashSet<>(bidders);
+            this.expectedBidders.retainAll(waitingAgents.keySet());
+            this.responded = new HashSet<>();
+        }
+
+        /**
+         * Agents that left the depot or filled up since the CFP are no longer expected
+         */
+        boolean allResponded() {
+            for (String agentName : expectedBidders) {
+                if (waitingAgents.containsKey(agentName) && !responded.contains(agentName)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private class AuctionInfo extends OpenAuction {
         PackageInfo packageInfo;
         long startTime;
         long endTime;
+        List<BidInfo> bids;
 
-        AuctionInfo(PackageInfo pkg, long startTime) {
+        AuctionInfo(String auctionId, PackageInfo pkg, List<String> bidders, long startTime) {
+            super(auctionId, bidders);
             this.packageInfo = pkg;
             this.startTime = startTime;
             this.endTime = startTime + AUCTION_WINDOW_MS;
+            this.bids = new ArrayList<>();
         }
     }
 
-    private class BidInfo implements Comparable<BidInfo> {
+    private class BatchAuctionInfo extends OpenAuction {
+        List<PackageInfo> packages;
+        Map<String, AgentMessage.BidBundle> bids;
+
+        BatchAuctionInfo(String auctionId, List<PackageInfo> packages, List<String> bidders) {
+            super(auctionId, bidders);
+            this.packages = packages;
+            this.bids = new LinkedHashMap<>();
+        }
+    }
+
+    static class BidInfo implements Comparable<BidInfo> {
         String agentName;
         int bidScore;
         int priority;
@@ -98,30 +236,43 @@ public class MasterAgent extends Agent {
 
     @Override
     protected void setup() {
-        availablePackages = new LinkedList<>();
-        packagesInDelivery = new HashMap<>();
+        availablePackages = new PriorityQueue<>(DISPATCH_ORDER);
+        packagesInDelivery = new TradeIndex();
+        awardedDeliveryTimes = new HashMap<>();
         regenerationTimers = new HashMap<>();
-        currentBids = new ArrayList<>();
-        waitingAgents = new HashSet<>();
+        openAuctions = new LinkedHashMap<>();
+        waitingAgents = new HashMap<>();
+        bidderRegistry = new LinkedHashMap<>();
         packageCounter = 1;
-        currentAuction = null;
-
-        SwingUtilities.invokeLater(() -> {
-            gui = new DeliveryGUI();
-            gui.addMessage("=============================================================");
-            gui.addMessage("Master Agent Starting - Auction-Based Delivery System");
-            gui.addMessage("=============================================================");
-            gui.addMessage("Configuration: " + NUM_AGENTS + " agents, " + NUM_INITIAL_PACKAGES + " initial packages");
-            gui.addMessage("Auction window: " + (AUCTION_WINDOW_MS/1000) + "s, Regeneration delay: " + (PACKAGE_REGENERATION_DELAY/1000) + "s");
-            gui.addMessage("Trading enabled: true");
-            gui.addMessage("");
-        });
-
-        try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+        auctionCounter = 1;
+        clock = SimulationClock.get();
+        latency = LatencyProfile.get();
+        map = DeliveryMap.get();
+        plan = new RoutePlan<>(map);
+
+        parseArguments();
+        setEnabledO2ACommunication(true, 0);
+
+        // A listener installed before startup (e.g. by a harness) is kept
+        if (events == DeliveryEventListener.NONE && !isHeadless()) {
+            events = new SwingEventListener();
         }
+        events.onMessage("=============================================================");
+        events.onMessage("Master Agent Starting - Auction-Based Delivery System");
+        events.onMessage("=============================================================");
+        events.onMessage("Configuration: " + NUM_AGENTS + " agents, " + initialPackages + " initial packages");
+        events.onMessage("Auction window: " + (AUCTION_WINDOW_MS/1000) + "s, Regeneration delay: " + (PACKAGE_REGENERATION_DELAY/1000) + "s");
+        if (SOLVER_DISPATCH && INCREMENTAL_PLANNING) {
+            events.onMessage("Incremental dispatch: packages inserted into planned routes, " +
+                    (AUCTION_WINDOW_MS/1000) + "s planning window");
+        } else if (SOLVER_DISPATCH) {
+            events.onMessage("Solver dispatch: routes planned by VrpSolver, " + SOLVER_BUDGET_MS + "ms budget");
+        } else {
+            events.onMessage(BATCH_AUCTIONS ? "Batch auctions: whole queue assigned per round"
+                    : "Concurrent auctions: one per free agent slot at the depot");
+        }
+        events.onMessage("Trading enabled: true");
+        events.onMessage("");
 
         addBehaviour(new OneShotBehaviour() {
             @Override
@@ -131,34 +282,89 @@ public class MasterAgent extends Agent {
         });
 
         addBehaviour(new MessageHandlerBehaviour());
+        registerGauges();
     }
 
-    private void initializeSystem() {
-        SwingUtilities.invokeLater(() -> {
-            gui.addMessage("--- Adding Agents to GUI ---");
-            // Register all agents with GUI BEFORE they try to update
-            for (int i = 1; i <= NUM_AGENTS; i++) {
-                String name = "Agent" + i;
-                int idx = i - 1;
-                int p = (idx < AGENT_PRIORITIES.length) ? AGENT_PRIORITIES[idx] : 1;
-                int c = (idx < AGENT_CAPACITIES.length) ? AGENT_CAPACITIES[idx] : 1;
-                String display = name + " (P:" + p + ", Cap:" + c + ")";
-                gui.addAgent(display);
-            }
-            gui.addMessage("All " + NUM_AGENTS + " agents registered with GUI");
-            gui.addMessage("");
-            gui.addMessage("--- Generating Initial Packages ---");
+    /**
+     * Sampled on the JMX / dump thread, hence the lock
+     */
+    private void registerGauges() {
+        Metrics.gauge("packages.queued", () -> {
+            synchronized (openAuctions) {
+                return availablePackages.size();
+            }
+        });
+        // Packages carried over total capacity of the agents that reported a status, in percent
+        Metrics.gauge("agents.utilization", () -> {
+            synchronized (openAuctions) {
+                long load = 0;
+                long capacity = 0;
+                for (AgentMessage.AgentStatus status : bidderRegistry.values()) {
+                    load += status.load();
+                    capacity += status.capacity();
+                }
+                return capacity == 0 ? 0 : 100 * load / capacity;
+            }
         });
+    }
+
+    private void parseArguments() {
+        Object[] args = getArguments();
+        if (args == null) {
+            return;
+        }
+        for (Object arg : args) {
+            String[] option = arg.toString().split("=", 2);
+            if (option.length != 2) {
+                continue;
+            }
+            switch (option[0]) {
+                case "initialPackages":
+                    initialPackages = Integer.parseInt(option[1]);
+                    break;
+                case "regeneration":
+                    regeneration = !"off".equalsIgnoreCase(option[1]);
+                    break;
+                default:
+                    EventLog.warn(LOG_SOURCE, "argument.unknown", "argument", arg);
+            }
+        }
+    }
+
+    private boolean isHeadless() {
+        Object[] args = getArguments();
+        if (args != null) {
+            for (Object arg : args) {
+                if ("headless".equalsIgnoreCase(arg.toString())) {
+                    return true;
+                }
+            }
+        }
+        return Boolean.getBoolean("vrp.headless") || GraphicsEnvironment.isHeadless();
+    }
+
+    private void initializeSystem() {
+        events.onMessage("--- Adding Agents to GUI ---");
+        // Register all agents with GUI BEFORE they try to update
+        for (int i = 1; i <= NUM_AGENTS; i++) {
+            String name = "Agent" + i;
+            int idx = i - 1;
+            int p = (idx < AGENT_PRIORITIES.length) ? AGENT_PRIORITIES[idx] : 1;
+            int c = (idx < AGENT_CAPACITIES.length) ? AGENT_CAPACITIES[idx] : 1;
+            String display = name + " (P:" + p + ", Cap:" + c + ")";
+            events.onAgentRegistered(display);
+        }
+        events.onMessage("All " + NUM_AGENTS + " agents registered with GUI");
+        events.onMessage("");
+        events.onMessage("--- Generating Initial Packages ---");
 
-        for (int i = 0; i < NUM_INITIAL_PACKAGES; i++) {
+        for (int i = 0; i < initialPackages; i++) {
             createPackage();
         }
 
-        SwingUtilities.invokeLater(() -> {
-            gui.addMessage("");
-            gui.addMessage("--- System Ready - Waiting for Agents ---");
-            gui.addMessage("");
-        });
+        events.onMessage("");
+        events.onMessage("--- System Ready - Waiting for Agents ---");
+        events.onMessage("");
 
         // Auctions will be triggered by agent REQUEST messages
         // No need to start auction automatically
@@ -176,22 +382,19 @@ public class MasterAgent extends Agent {
             selectedType = PACKAGE_TYPES[2];
         }
 
-        String packageName = "P" + packageCounter++;
-        int deliveryTime = Integer.parseInt(selectedType[1]);
+        int sequence = packageCounter++;
+        String packageName = "P" + sequence;
+        int location = map.randomLocation(ThreadLocalRandom.current());
+        int deliveryTime = map.travelSeconds(DeliveryMap.DEPOT, location);
         String type = selectedType[0];
-        int urgencyScore = Integer.parseInt(selectedType[2]);
+        int urgencyScore = Integer.parseInt(selectedType[1]);
 
-        PackageInfo newPackage = new PackageInfo(packageName, deliveryTime, type, urgencyScore);
+        PackageInfo newPackage = new PackageInfo(packageName, deliveryTime, type, urgencyScore, sequence, location);
         availablePackages.add(newPackage);
 
-        final String pkgName = packageName;
-        final int delTime = deliveryTime;
-        final String pkgType = type;
-
-        SwingUtilities.invokeLater(() -> {
-            gui.addMessage("[PACKAGE CREATED] " + pkgName + " - Type: " + pkgType + ", Time: " + delTime + "s");
-            gui.addAvailablePackage(pkgName, delTime);
-        });
+        events.onMessage("[PACKAGE CREATED] " + packageName + " - Type: " + type + ", Location: " + location +
+                ", Time: " + deliveryTime + "s");
+        events.onPackageCreated(packageName, deliveryTime);
     }
 
     private void schedulePackageRegeneration(String originalName) {
@@ -199,164 +402,261 @@ public class MasterAgent extends Agent {
             return;
         }
 
-        SwingUtilities.invokeLater(() -> {
-            gui.addMessage("[REGENERATION SCHEDULED] " + originalName + " will regenerate in " +
-                    (PACKAGE_REGENERATION_DELAY/1000) + "s");
-        });
+        events.onMessage("[REGENERATION SCHEDULED] " + originalName + " will regenerate in " +
+                (PACKAGE_REGENERATION_DELAY/1000) + "s");
 
-        Timer regenTimer = new Timer(PACKAGE_REGENERATION_DELAY, e -> {
-            createPackage();
-
-            SwingUtilities.invokeLater(() -> {
-                gui.addMessage("[REGENERATION COMPLETE] New package available");
-            });
+        SimulationClock.Handle regenTimer = clock.schedule(this, PACKAGE_REGENERATION_DELAY, () -> {
+            boolean agentsWaiting;
+            synchronized (openAuctions) {
+                createPackage();
+                regenerationTimers.remove(originalName);
+                agentsWaiting = !waitingAgents.isEmpty();
+            }
 
-            regenerationTimers.remove(originalName);
+            events.onMessage("[REGENERATION COMPLETE] New package available");
 
-            if (currentAuction == null && !waitingAgents.isEmpty()) {
-                addBehaviour(new jade.core.behaviours.WakerBehaviour(MasterAgent.this, 500) {
-                    @Override
-                    protected void onWake() {
-                        startAuction();
-                    }
+            if (agentsWaiting) {
+                LatencyProfile.runAfter(MasterAgent.this, latency.auctionStartDelayMs, () -> {
+                    startAuctions();
                 });
             }
         });
 
-        regenTimer.setRepeats(false);
-        regenTimer.start();
         regenerationTimers.put(originalName, regenTimer);
     }
 
-    private void startAuction() {
-        if (availablePackages.isEmpty()) {
-            SwingUtilities.invokeLater(() -> {
-                gui.addMessage("[AUCTION] No packages available - waiting for regeneration");
-            });
-            return;
+    /**
+     * Open one auction per queued package, up to the number of free slots
+     * among the agents waiting at the depot. Auctions run concurrently, each
+     * with its own bid book and timeout, keyed by auction id.
+     */
+    private void startAuctions() {
+        synchronized (openAuctions) {
+            if (availablePackages.isEmpty()) {
+                events.onMessage("[AUCTION] No packages available - waiting for regeneration");
+                return;
+            }
+
+            List<String> bidders = eligibleBidders();
+            if (bidders.isEmpty()) {
+                EventLog.debug(LOG_SOURCE, "auction.deferred", "reason", "no eligible bidders");
+                return;
+            }
+
+            if (SOLVER_DISPATCH && INCREMENTAL_PLANNING) {
+                planIncrementally(bidders);
+                return;
+            }
+            if (SOLVER_DISPATCH) {
+                dispatchRoutes(bidders);
+                return;
+            }
+            if (BATCH_AUCTIONS) {
+                startBatchAuction(bidders);
+                return;
+            }
+
+            int freeSlots = 0;
+            for (int slots : waitingAgents.values()) {
+                freeSlots += slots;
+            }
+
+            while (!availablePackages.isEmpty() && openAuctions.size() < freeSlots) {
+                startAuction(availablePackages.poll(), bidders);
+            }
         }
+    }
 
-        if (currentAuction != null) {
-            return;
+    /**
+     * Agents whose last reported status lets them bid
+     */
+    private List<String> eligibleBidders() {
+        List<String> bidders = new ArrayList<>();
+        for (Map.Entry<String, AgentMessage.AgentStatus> entry : bidderRegistry.entrySet()) {
+            if (entry.getValue().canBid()) {
+                bidders.add(entry.getKey());
+            }
         }
+        return bidders;
+    }
 
-        PackageInfo packageToAuction = availablePackages.poll();
+    private void startAuction(PackageInfo packageToAuction, List<String> bidders) {
+        String auctionId = "auction-" + auctionCounter++;
 
-        SwingUtilities.invokeLater(() -> {
-            gui.addMessage("");
-            gui.addMessage("=============================================================");
-            gui.addMessage("[AUCTION STARTED] Package: " + packageToAuction.name + " (" +
-                    packageToAuction.type + ", " + packageToAuction.deliveryTime + "s)");
-            gui.addMessage("Bidding window: " + (AUCTION_WINDOW_MS/1000) + " seconds");
-            gui.addMessage("=============================================================");
-        });
+        events.onMessage("");
+        events.onMessage("=============================================================");
+        events.onMessage("[AUCTION STARTED] " + auctionId + " - Package: " + packageToAuction.name + " (" +
+                packageToAuction.type + ", " + packageToAuction.deliveryTime + "s)");
+        events.onMessage("Bidding window: " + (AUCTION_WINDOW_MS/1000) + " seconds, open auctions: " +
+                (openAuctions.size() + 1));
+        events.onMessage("=============================================================");
 
-        currentAuction = new AuctionInfo(packageToAuction, System.currentTimeMillis());
-        currentBids.clear();
+        AuctionInfo auction = new AuctionInfo(auctionId, packageToAuction, bidders, clock.now());
+        openAuctions.put(auctionId, auction);
+        events.onAuctionStarted(auctionId, 1);
 
         ACLMessage cfpMsg = new ACLMessage(ACLMessage.CFP);
-        String content = packageToAuction.name + ":" + packageToAuction.deliveryTime + ":" +
-                packageToAuction.type + ":" + packageToAuction.urgencyScore;
-        cfpMsg.setContent(content);
+        cfpMsg.setConversationId(auctionId);
+        MessageCodec.write(cfpMsg, new AgentMessage.Cfp(packageToAuction.name, packageToAuction.deliveryTime,
+                packageToAuction.type, packageToAuction.urgencyScore, packageToAuction.location));
 
-        for (int i = 1; i <= NUM_AGENTS; i++) {
-            cfpMsg.addReceiver(new AID("Agent" + i, AID.ISLOCALNAME));
+        for (String bidder : bidders) {
+            cfpMsg.addReceiver(new AID(bidder, AID.ISLOCALNAME));
         }
 
-        System.out.println("MasterAgent: Sending CFP to " + NUM_AGENTS + " agents for package " + packageToAuction.name);
+        EventLog.info(LOG_SOURCE, "auction.cfp", "auction", auctionId, "package", packageToAuction.name,
+                "bidders", bidders.size());
         send(cfpMsg);
 
-        auctionTimer = new Timer(AUCTION_WINDOW_MS, e -> {
-            endAuction();
-        });
-        auctionTimer.setRepeats(false);
-        auctionTimer.start();
+        auction.timer = clock.schedule(this, AUCTION_WINDOW_MS, () -> endAuction(auctionId));
     }
 
     private void receiveBid(ACLMessage bidMessage) {
-        if (currentAuction == null) {
-            System.out.println("MasterAgent: Bid received but no active auction");
-            return;
-        }
+        AgentMessage.Bid bid = MessageCodec.read(bidMessage, AgentMessage.Bid.class);
+        if (bid == null) return;
 
-        String[] parts = bidMessage.getContent().split(":");
-        String packageName = parts[0];
-        int bidScore = Integer.parseInt(parts[1]);
-        int priority = Integer.parseInt(parts[2]);
-        long timestamp = Long.parseLong(parts[3]);
+        String packageName = bid.packageName();
+        int bidScore = bid.bidScore();
+        int priority = bid.priority();
+        long timestamp = bid.timestamp();
 
         String agentName = bidMessage.getSender().getLocalName();
 
-        if (!packageName.equals(currentAuction.packageInfo.name)) {
-            System.out.println("MasterAgent: Bid for wrong package");
-            return;
+        synchronized (openAuctions) {
+            AuctionInfo auction = openAuctions.get(bidMessage.getConversationId());
+            if (auction == null) {
+                EventLog.debug(LOG_SOURCE, "bid.late", "auction", bidMessage.getConversationId(), "agent", agentName);
+                return;
+            }
+
+            if (!packageName.equals(auction.packageInfo.name)) {
+                EventLog.warn(LOG_SOURCE, "bid.wrong_package", "auction", auction.auctionId, "agent", agentName,
+                        "package", packageName);
+                return;
+            }
+
+            for (BidInfo existing : auction.bids) {
+                if (existing.agentName.equals(agentName)) {
+                    events.onMessage("[BID UPDATE] " + agentName + " updated bid for " + packageName + " to " + bidScore + " points");
+                    existing.bidScore = bidScore;
+                    existing.timestamp = timestamp;
+                    return;
+                }
+            }
+
+            auction.bids.add(new BidInfo(agentName, bidScore, priority, timestamp));
+            auction.responded.add(agentName);
+
+            events.onMessage("[BID RECEIVED] " + agentName + " (Priority: " + priority + ") - " + packageName +
+                    ": " + bidScore + " points");
+
+            closeIfComplete(auction);
         }
+    }
 
-        for (BidInfo bid : currentBids) {
-            if (bid.agentName.equals(agentName)) {
-                SwingUtilities.invokeLater(() -> {
-                    gui.addMessage("[BID UPDATE] " + agentName + " updated bid to " + bidScore + " points");
-                });
-                bid.bidScore = bidScore;
-                bid.timestamp = timestamp;
+    /**
+     * An agent that cannot take the package answers the CFP with REFUSE
+     */
+    private void receiveDecline(String auctionId, String agentName) {
+        synchronized (openAuctions) {
+            OpenAuction auction = openAuctions.get(auctionId);
+            if (auction == null && openBatch != null && openBatch.auctionId.equals(auctionId)) {
+                auction = openBatch;
+            }
+            if (auction == null) {
                 return;
             }
+
+            auction.responded.add(agentName);
+            closeIfComplete(auction);
         }
+    }
 
-        BidInfo newBid = new BidInfo(agentName, bidScore, priority, timestamp);
-        currentBids.add(newBid);
+    private void closeIfComplete(OpenAuction auction) {
+        boolean open = openAuctions.get(auction.auctionId) == auction || openBatch == auction;
+        if (!open || !auction.allResponded()) {
+            return;
+        }
 
-        final String agent = agentName;
-        final int score = bidScore;
-        final int prio = priority;
+        auction.timer.cancel();
+        events.onMessage("[AUCTION CLOSED EARLY] " + auction.auctionId + " - all expected bidders responded");
 
-        SwingUtilities.invokeLater(() -> {
-            gui.addMessage("[BID RECEIVED] " + agent + " (Priority: " + prio + ") - Score: " + score + " points");
-        });
+        if (auction instanceof BatchAuctionInfo) {
+            endBatchAuction(auction.auctionId);
+        } else {
+            endAuction(auction.auctionId);
+        }
     }
 
-    private void endAuction() {
-        if (currentAuction == null) {
-            return;
+    /**
+     * A winner that filled up is no longer expected elsewhere, which may complete other auctions
+     */
+    private void closeCompletedAuctions() {
+        for (AuctionInfo auction : new ArrayList<>(openAuctions.values())) {
+            closeIfComplete(auction);
         }
+    }
 
-        PackageInfo packageInfo = currentAuction.packageInfo;
-        
-        // Capture bid count NOW (not on EDT later)
-        final int bidCount = currentBids.size();
+    /**
+     * Sort bids best first and pick the best bidder that is still at the
+     * depot with a free slot; earlier auctions may already have filled the others
+     *
+     * @return null if no bidder has a free slot
+     */
+    static BidInfo selectWinner(List<BidInfo> bids, Map<String, Integer> slotsLeft) {
+        Collections.sort(bids);
+        for (BidInfo bid : bids) {
+            if (slotsLeft.getOrDefault(bid.agentName, 0) > 0) {
+                return bid;
+            }
+        }
+        return null;
+    }
 
-        SwingUtilities.invokeLater(() -> {
-            gui.addMessage("");
-            gui.addMessage("[AUCTION ENDING] Evaluating " + bidCount + " bid(s)...");
-        });
+    private void endAuction(String auctionId) {
+        synchronized (openAuctions) {
+            AuctionInfo auction = openAuctions.remove(auctionId);
+            if (auction == null) {
+                return;
+            }
 
-        if (currentBids.isEmpty()) {
-            SwingUtilities.invokeLater(() -> {
-                gui.addMessage("[AUCTION FAILED] No bids received for " + packageInfo.name);
-                gui.addMessage("Package returned to queue");
-            });
+            PackageInfo packageInfo = auction.packageInfo;
+            List<BidInfo> bids = auction.bids;
+
+            events.onMessage("");
+            events.onMessage("[AUCTION ENDING] " + auctionId + " (" + packageInfo.name + ") - Evaluating " +
+                    bids.size() + " bid(s)...");
 
-            availablePackages.add(packageInfo);
-            currentAuction = null;
+            BidInfo winner = selectWinner(bids, waitingAgents);
 
-            addBehaviour(new jade.core.behaviours.WakerBehaviour(this, 2000) {
-                @Override
-                protected void onWake() {
-                    startAuction();
+            BIDS_PER_AUCTION.record(bids.size());
+            events.onAuctionClosed(auctionId, winner == null ? 0 : 1);
+
+            if (winner == null) {
+                events.onMessage("[AUCTION FAILED] No " + (bids.isEmpty() ? "" : "eligible ") +
+                        "bids received for " + packageInfo.name);
+                events.onMessage("Package returned to queue");
+
+                for (BidInfo bid : bids) {
+                    sendReject(auctionId, bid.agentName, "No free capacity left");
                 }
-            });
-            return;
-        }
+                for (BidInfo bid : bids) {
+                    releaseIfDeparting(bid.agentName);
+                }
+
+                availablePackages.add(packageInfo);
 
-        Collections.sort(currentBids);
+                clock.schedule(this, 2000, this::startAuctions);
+                return;
+            }
 
-        BidInfo winner = currentBids.get(0);
-        List<BidInfo> losers = currentBids.subList(1, currentBids.size());
+            List<BidInfo> losers = new ArrayList<>(bids);
+            losers.remove(winner);
 
-        SwingUtilities.invokeLater(() -> {
-            gui.addMessage("");
-            gui.addMessage("-------------------------------------------------------------");
-            gui.addMessage("[AUCTION WINNER] " + winner.agentName + " with " + winner.bidScore + " points");
+            events.onMessage("");
+            events.onMessage("-------------------------------------------------------------");
+            events.onMessage("[AUCTION WINNER] " + packageInfo.name + " -> " + winner.agentName + " with " +
+                    winner.bidScore + " points");
 
             if (!losers.isEmpty()) {
                 StringBuilder loserStr = new StringBuilder();
@@ -364,235 +664,644 @@ public class MasterAgent extends Agent {
                     if (loserStr.length() > 0) loserStr.append(", ");
                     loserStr.append(loser.agentName).append("(").append(loser.bidScore).append(")");
                 }
-                gui.addMessage("[AUCTION LOSERS] " + loserStr.toString());
+                events.onMessage("[AUCTION LOSERS] " + loserStr.toString());
             }
 
-            gui.addMessage("-------------------------------------------------------------");
-            gui.addMessage("");
-        });
+            events.onMessage("-------------------------------------------------------------");
+            events.onMessage("");
 
-        ACLMessage acceptMsg = new ACLMessage(ACLMessage.ACCEPT_PROPOSAL);
-        acceptMsg.setContent(packageInfo.name + ":" + packageInfo.deliveryTime + ":" + packageInfo.type);
-        acceptMsg.addReceiver(new AID(winner.agentName, AID.ISLOCALNAME));
-        send(acceptMsg);
+            ACLMessage acceptMsg = new ACLMessage(ACLMessage.ACCEPT_PROPOSAL);
+            acceptMsg.setConversationId(auctionId);
+            MessageCodec.write(acceptMsg, new AgentMessage.Award(packageInfo.name, packageInfo.deliveryTime, packageInfo.type,
+                    packageInfo.location));
+            acceptMsg.addReceiver(new AID(winner.agentName, AID.ISLOCALNAME));
+            send(acceptMsg);
+            CFP_TO_AWARD.record((System.nanoTime() - auction.cfpNanos) / 1000);
+
+            for (BidInfo loser : losers) {
+                sendReject(auctionId, loser.agentName,
+                        "Lost to " + winner.agentName + " (" + winner.bidScore + " vs " + loser.bidScore + ")");
+            }
+            for (BidInfo loser : losers) {
+                releaseIfDeparting(loser.agentName);
+            }
+
+            events.onPackageAssigned(packageInfo.name);
+            awardedDeliveryTimes.put(packageInfo.name, packageInfo.deliveryTime);
+
+            int slotsLeft = waitingAgents.get(winner.agentName) - 1;
+            if (slotsLeft > 0) {
+                waitingAgents.put(winner.agentName, slotsLeft);
+                releaseIfDeparting(winner.agentName);
+            } else {
+                waitingAgents.remove(winner.agentName);
+                closeCompletedAuctions();
+            }
+
+            if (!availablePackages.isEmpty()) {
+                LatencyProfile.runAfter(this, latency.auctionStartDelayMs, () -> {
+                    startAuctions();
+                });
+            }
+        }
+    }
 
-        for (BidInfo loser : losers) {
-            ACLMessage rejectMsg = new ACLMessage(ACLMessage.REJECT_PROPOSAL);
-            rejectMsg.setContent("Lost to " + winner.agentName + " (" + winner.bidScore + " vs " + loser.bidScore + ")");
-            rejectMsg.addReceiver(new AID(loser.agentName, AID.ISLOCALNAME));
-            send(rejectMsg);
+    /**
+     * An agent holding packages leaves the depot once none of its bids is still open
+     * (DeliveryAgent starts delivering when its pending bids run out)
+     */
+    private void releaseIfDeparting(String agentName) {
+        Integer slots = waitingAgents.get(agentName);
+        if (slots == null || slots >= capacityOf(agentName)) {
+            return;
         }
+        for (AuctionInfo auction : openAuctions.values()) {
+            for (BidInfo bid : auction.bids) {
+                if (bid.agentName.equals(agentName)) {
+                    return;
+                }
+            }
+        }
+        waitingAgents.remove(agentName);
+        closeCompletedAuctions();
+    }
 
-        final String pkgName = packageInfo.name;
-        SwingUtilities.invokeLater(() -> {
-            gui.removeAvailablePackage(pkgName);
-        });
+    private void sendReject(String auctionId, String agentName, String reason) {
+        ACLMessage rejectMsg = new ACLMessage(ACLMessage.REJECT_PROPOSAL);
+        rejectMsg.setConversationId(auctionId);
+        rejectMsg.setContent(reason);
+        rejectMsg.addReceiver(new AID(agentName, AID.ISLOCALNAME));
+        send(rejectMsg);
+    }
 
-        currentAuction = null;
-        currentBids.clear();
+    private int capacityOf(String agentName) {
+        int agentIndex = Integer.parseInt(agentName.replace("Agent", "")) - 1;
+        return (agentIndex < AGENT_CAPACITIES.length) ? AGENT_CAPACITIES[agentIndex] : 1;
+    }
+
+    private int priorityOf(String agentName) {
+        int agentIndex = Integer.parseInt(agentName.replace("Agent", "")) - 1;
+        return (agentIndex < AGENT_PRIORITIES.length) ? AGENT_PRIORITIES[agentIndex] : 1;
+    }
+
+    /**
+     * Offer every queued package in one CFP bundle. Each agent answers with
+     * one bid per package and the whole queue is assigned in a single round.
+     */
+    private void startBatchAuction(List<String> bidders) {
+        if (openBatch != null || waitingAgents.isEmpty()) {
+            return;
+        }
+
+        String auctionId = "batch-" + auctionCounter++;
+        // Drained in dispatch order, so the CFP bundle lists urgent packages first
+        List<PackageInfo> packages = new ArrayList<>(availablePackages.size());
+        while (!availablePackages.isEmpty()) {
+            packages.add(availablePackages.poll());
+        }
 
-        if (!availablePackages.isEmpty()) {
-            addBehaviour(new jade.core.behaviours.WakerBehaviour(this, 500) {
-                @Override
-                protected void onWake() {
-                    startAuction();
+        events.onMessage("");
+        events.onMessage("=============================================================");
+        events.onMessage("[BATCH AUCTION STARTED] " + auctionId + " - " + packages.size() + " package(s)");
+        events.onMessage("Bidding window: " + (AUCTION_WINDOW_MS/1000) + " seconds");
+        events.onMessage("=============================================================");
+
+        List<AgentMessage.Cfp> cfps = new ArrayList<>(packages.size());
+        for (PackageInfo pkg : packages) {
+            cfps.add(new AgentMessage.Cfp(pkg.name, pkg.deliveryTime, pkg.type, pkg.urgencyScore, pkg.location));
+        }
+
+        openBatch = new BatchAuctionInfo(auctionId, packages, bidders);
+        events.onAuctionStarted(auctionId, packages.size());
+
+        ACLMessage cfpMsg = new ACLMessage(ACLMessage.CFP);
+        cfpMsg.setConversationId(auctionId);
+        MessageCodec.write(cfpMsg, new AgentMessage.CfpBundle(cfps));
+
+        for (String bidder : bidders) {
+            cfpMsg.addReceiver(new AID(bidder, AID.ISLOCALNAME));
+        }
+
+        EventLog.info(LOG_SOURCE, "auction.batch_cfp", "auction", auctionId, "packages", packages.size());
+        send(cfpMsg);
+
+        openBatch.timer = clock.schedule(this, AUCTION_WINDOW_MS, () -> endBatchAuction(auctionId));
+    }
+
+    private void receiveBidBundle(AgentMessage.BidBundle bundle, ACLMessage bidMessage) {
+        String agentName = bidMessage.getSender().getLocalName();
+
+        synchronized (openAuctions) {
+            if (openBatch == null || !openBatch.auctionId.equals(bidMessage.getConversationId())) {
+                EventLog.debug(LOG_SOURCE, "bid.late", "auction", bidMessage.getConversationId(), "agent", agentName);
+                return;
+            }
+            openBatch.bids.put(agentName, bundle);
+            openBatch.responded.add(agentName);
+
+            events.onMessage("[BID RECEIVED] " + agentName + " - " + bundle.bids().size() + " bid(s), " +
+                    bundle.freeSlots() + " free slot(s)");
+
+            closeIfComplete(openBatch);
+        }
+    }
+
+    /**
+     * Solve the package -> agent slot assignment that maximizes the total bid
+     * score, never giving an agent more packages than it has free slots.
+     */
+    private void endBatchAuction(String auctionId) {
+        synchronized (openAuctions) {
+            if (openBatch == null || !openBatch.auctionId.equals(auctionId)) {
+                return;
+            }
+
+            BatchAuctionInfo batch = openBatch;
+            openBatch = null;
+
+            events.onMessage("");
+            events.onMessage("[BATCH AUCTION ENDING] " + auctionId + " - " + batch.bids.size() + " bidder(s)");
+
+            // One column per free slot of each bidder still at the depot
+            List<String> slotOwners = new ArrayList<>();
+            for (Map.Entry<String, AgentMessage.BidBundle> entry : batch.bids.entrySet()) {
+                int slots = Math.min(entry.getValue().freeSlots(), waitingAgents.getOrDefault(entry.getKey(), 0));
+                for (int s = 0; s < slots; s++) {
+                    slotOwners.add(entry.getKey());
                 }
-            });
+            }
+
+            Map<String, Integer> packageIndex = new HashMap<>();
+            for (int i = 0; i < batch.packages.size(); i++) {
+                packageIndex.put(batch.packages.get(i).name, i);
+            }
+
+            long[][] weight = new long[batch.packages.size()][slotOwners.size()];
+            for (long[] row : weight) {
+                Arrays.fill(row, -1);
+            }
+            for (int col = 0; col < slotOwners.size(); col++) {
+                for (AgentMessage.Bid bid : batch.bids.get(slotOwners.get(col)).bids()) {
+                    Integer row = packageIndex.get(bid.packageName());
+                    if (row != null) {
+                        weight[row][col] = bid.bidScore();
+                    }
+                }
+            }
+
+            int[] assignment = AssignmentSolver.maximize(weight);
+
+            Map<String, List<AgentMessage.Award>> awards = new LinkedHashMap<>();
+            int assigned = 0;
+            long totalScore = 0;
+
+            events.onMessage("-------------------------------------------------------------");
+            for (int row = 0; row < assignment.length; row++) {
+                PackageInfo packageInfo = batch.packages.get(row);
+                int col = assignment[row];
+
+                if (col < 0) {
+                    availablePackages.add(packageInfo);
+                    continue;
+                }
+
+                String winner = slotOwners.get(col);
+                assigned++;
+                totalScore += weight[row][col];
+
+                events.onMessage("[AUCTION WINNER] " + packageInfo.name + " -> " + winner + " with " +
+                        weight[row][col] + " points");
+
+                awards.computeIfAbsent(winner, w -> new ArrayList<>()).add(new AgentMessage.Award(packageInfo.name,
+                        packageInfo.deliveryTime, packageInfo.type, packageInfo.location));
+                events.onPackageAssigned(packageInfo.name);
+                awardedDeliveryTimes.put(packageInfo.name, packageInfo.deliveryTime);
+            }
+
+            // One message per winner, so it plans the whole trip before leaving the depot
+            for (Map.Entry<String, List<AgentMessage.Award>> entry : awards.entrySet()) {
+                ACLMessage acceptMsg = new ACLMessage(ACLMessage.ACCEPT_PROPOSAL);
+                acceptMsg.setConversationId(auctionId);
+                MessageCodec.write(acceptMsg, new AgentMessage.AwardBundle(entry.getValue()));
+                acceptMsg.addReceiver(new AID(entry.getKey(), AID.ISLOCALNAME));
+                send(acceptMsg);
+
+                waitingAgents.remove(entry.getKey());
+            }
+
+            for (String bidder : batch.bids.keySet()) {
+                if (!awards.containsKey(bidder)) {
+                    sendReject(auctionId, bidder, "No package assigned in " + auctionId);
+                }
+            }
+
+            BIDS_PER_AUCTION.record(batch.bids.size());
+            if (assigned > 0) {
+                CFP_TO_AWARD.record((System.nanoTime() - batch.cfpNanos) / 1000);
+            }
+            events.onAuctionClosed(auctionId, assigned);
+            events.onMessage("[BATCH RESULT] " + assigned + "/" + batch.packages.size() +
+                    " package(s) assigned, total score " + totalScore);
+            events.onMessage("-------------------------------------------------------------");
+            events.onMessage("");
+
+            if (!availablePackages.isEmpty() && assigned == 0) {
+                clock.schedule(this, 2000, this::startAuctions);
+            } else if (!availablePackages.isEmpty()) {
+                LatencyProfile.runAfter(this, latency.auctionStartDelayMs, () -> {
+                    startAuctions();
+                });
+            }
         }
     }
 
+    /**
+     * Plan routes for the agents waiting at the depot with VrpSolver and
+     * award each agent its whole route in one message. The most urgent
+     * packages are planned first, as many as the agents have free slots;
+     * anything the solver leaves out goes back to the queue.
+     */
+    private void dispatchRoutes(List<String> agents) {
+        List<String> fleet = new ArrayList<>();
+        List<Integer> freeSlots = new ArrayList<>();
+        int totalSlots = 0;
+        for (String agent : agents) {
+            int slots = waitingAgents.getOrDefault(agent, 0);
+            if (slots > 0) {
+                fleet.add(agent);
+                freeSlots.add(slots);
+                totalSlots += slots;
+            }
+        }
+        if (fleet.isEmpty()) {
+            return;
+        }
+
+        List<PackageInfo> packages = new ArrayList<>();
+        while (!availablePackages.isEmpty() && packages.size() < totalSlots) {
+            packages.add(availablePackages.poll());
+        }
+        int[] locations = new int[packages.size()];
+        for (int i = 0; i < locations.length; i++) {
+            locations[i] = packages.get(i).location;
+        }
+        int[] capacities = new int[fleet.size()];
+        for (int v = 0; v < capacities.length; v++) {
+            capacities[v] = freeSlots.get(v);
+        }
+
+        long solveStart = System.nanoTime();
+        VrpSolver.Solution solution = VrpSolver.solve(map, locations, capacities, SOLVER_BUDGET_MS);
+        long solveMicros = (System.nanoTime() - solveStart) / 1000;
+        SOLVE_TIME.record(solveMicros);
+
+        String dispatchId = "dispatch-" + auctionCounter++;
+        events.onAuctionStarted(dispatchId, packages.size());
+        events.onMessage("");
+        events.onMessage("=============================================================");
+        events.onMessage("[ROUTES PLANNED] " + dispatchId + " - " + packages.size() + " package(s), " +
+                fleet.size() + " agent(s), " + solution.travelSeconds() + "s total travel");
+
+        int assigned = 0;
+        for (int v = 0; v < fleet.size(); v++) {
+            int[] route = solution.routes()[v];
+            if (route.length == 0) {
+                continue;
+            }
+            List<PackageInfo> stops = new ArrayList<>(route.length);
+            for (int customer : route) {
+                stops.add(packages.get(customer));
+            }
+            sendRoute(dispatchId, fleet.get(v), stops);
+            assigned += route.length;
+        }
+
+        for (int customer : solution.unassigned()) {
+            availablePackages.add(packages.get(customer));
+        }
+
+        events.onAuctionClosed(dispatchId, assigned);
+        events.onMessage("=============================================================");
+        EventLog.info(LOG_SOURCE, "dispatch.solved", "dispatch", dispatchId, "packages", packages.size(),
+                "agents", fleet.size(), "assigned", assigned, "travelSeconds", solution.travelSeconds(),
+                "solveMicros", solveMicros);
+    }
+
+    /**
+     * Incremental solver mode: keep one planned route per agent waiting at
+     * the depot and add the queued packages, most urgent first, by cheapest
+     * insertion. Only the route that takes a package is re-ordered. A full
+     * route leaves at once; the rest leave when the planning window closes.
+     */
+    private void planIncrementally(List<String> agents) {
+        // Agents that can no longer take packages give theirs back to the queue
+        for (String agent : plan.agents()) {
+            if (!agents.contains(agent) || !waitingAgents.containsKey(agent)) {
+                availablePackages.addAll(plan.removeVehicle(agent));
+            }
+        }
+        for (String agent : agents) {
+            int slots = waitingAgents.getOrDefault(agent, 0);
+            if (slots > 0 && !plan.hasVehicle(agent)) {
+                plan.addVehicle(agent, slots);
+            }
+        }
+
+        while (!availablePackages.isEmpty()) {
+            PackageInfo pkg = availablePackages.peek();
+            String agent = plan.insert(pkg, pkg.location);
+            if (agent == null) {
+                break;
+            }
+            availablePackages.poll();
+            EventLog.debug(LOG_SOURCE, "plan.insert", "package", pkg.name, "agent", agent,
+                    "tripSeconds", plan.tripSeconds(agent));
+
+            if (plan.isFull(agent)) {
+                dispatchPlannedRoute(agent);
+            } else if (planTimer == null) {
+                planTimer = clock.schedule(this, AUCTION_WINDOW_MS, this::closePlanningWindow);
+            }
+        }
+    }
+
+    private void closePlanningWindow() {
+        synchronized (openAuctions) {
+            planTimer = null;
+            for (String agent : plan.agents()) {
+                if (!plan.route(agent).isEmpty()) {
+                    dispatchPlannedRoute(agent);
+                }
+            }
+        }
+    }
+
+    private void dispatchPlannedRoute(String agent) {
+        String dispatchId = "dispatch-" + auctionCounter++;
+        int tripSeconds = plan.tripSeconds(agent);
+        List<PackageInfo> route = plan.removeVehicle(agent);
+
+        events.onAuctionStarted(dispatchId, route.size());
+        sendRoute(dispatchId, agent, route);
+        events.onAuctionClosed(dispatchId, route.size());
+        EventLog.info(LOG_SOURCE, "dispatch.planned", "dispatch", dispatchId, "agent", agent,
+                "packages", route.size(), "tripSeconds", tripSeconds);
+    }
+
+    /**
+     * Award the agent its whole route in one message, stops in visiting
+     * order; the agent leaves the depot
+     */
+    private void sendRoute(String dispatchId, String agent, List<PackageInfo> route) {
+        List<AgentMessage.Award> stops = new ArrayList<>(route.size());
+        List<String> names = new ArrayList<>(route.size());
+        int at = DeliveryMap.DEPOT;
+        int arrival = 0;
+        for (PackageInfo pkg : route) {
+            arrival += map.travelSeconds(at, pkg.location);
+            at = pkg.location;
+            stops.add(new AgentMessage.Award(pkg.name, arrival, pkg.type, pkg.location));
+            names.add(pkg.name);
+
+            events.onPackageAssigned(pkg.name);
+            awardedDeliveryTimes.put(pkg.name, arrival);
+        }
+
+        ACLMessage acceptMsg = new ACLMessage(ACLMessage.ACCEPT_PROPOSAL);
+        acceptMsg.setConversationId(dispatchId);
+        MessageCodec.write(acceptMsg, new AgentMessage.AwardBundle(stops));
+        acceptMsg.addReceiver(new AID(agent, AID.ISLOCALNAME));
+        send(acceptMsg);
+
+        events.onMessage("[ROUTE] " + agent + " <- " + names);
+        waitingAgents.remove(agent);
+    }
+
     private class MessageHandlerBehaviour extends CyclicBehaviour {
         @Override
         public void action() {
+            Object request = getO2AObject();
+            if (request instanceof PackageArrival arrival) {
+                handlePackageArrival(arrival);
+            }
+
             ACLMessage msg = receive();
 
             if (msg != null) {
+                clock.markActivity();
+
                 int performative = msg.getPerformative();
-                String content = msg.getContent();
                 String sender = msg.getSender().getLocalName();
+                MESSAGES.increment();
+                events.onAclMessage(getLocalName(), performative);
 
                 switch (performative) {
                     case ACLMessage.PROPOSE:
-                        receiveBid(msg);
+                        AgentMessage.BidBundle bundle = MessageCodec.read(msg, AgentMessage.BidBundle.class);
+                        if (bundle != null) {
+                            receiveBidBundle(bundle, msg);
+                        } else {
+                            receiveBid(msg);
+                        }
                         break;
 
                     case ACLMessage.CONFIRM:
-                        handlePackagePickup(content, sender);
+                        AgentMessage.DeliveryReport pickup = MessageCodec.read(msg, AgentMessage.DeliveryReport.class);
+                        if (pickup != null) {
+                            handlePackagePickup(pickup.packageName(), sender);
+                        }
                         break;
 
                     case ACLMessage.REQUEST:
                         handlePackageRequest(sender);
                         break;
 
+                    case ACLMessage.REFUSE:
+                        receiveDecline(msg.getConversationId(), sender);
+                        break;
+
                     case ACLMessage.QUERY_REF:
-                        handleTradeQuery(content, sender);
+                        AgentMessage.TradeQuery query = MessageCodec.read(msg, AgentMessage.TradeQuery.class);
+                        if (query != null) {
+                            handleTradeQuery(query, sender);
+                        }
                         break;
 
                     case ACLMessage.INFORM:
-                        // Check if it's a trade notification
+                        // Check if it's a trade notification or a status update
                         if (msg.getConversationId() != null && 
                             msg.getConversationId().equals("TRADE_NOTIFICATION")) {
-                            handleTradeNotification(content);
+                            handleTradeNotification(MessageCodec.read(msg, AgentMessage.DeliveryReport.class));
+                        } else if ("TRADE_REFUSED".equals(msg.getConversationId())) {
+                            AgentMessage.DeliveryReport refusal = MessageCodec.read(msg, AgentMessage.DeliveryReport.class);
+                            if (refusal != null) {
+                                packagesInDelivery.recordTradeRefused(refusal.fromAgent());
+                                TRADES_REFUSED.increment();
+                                events.onTradeResult(refusal.packageName(), refusal.fromAgent(), refusal.toAgent(), false);
+                            }
+                        } else if ("AGENT_STATUS".equals(msg.getConversationId())) {
+                            AgentMessage.AgentStatus status = MessageCodec.read(msg, AgentMessage.AgentStatus.class);
+                            if (status != null) {
+                                synchronized (openAuctions) {
+                                    bidderRegistry.put(sender, status);
+                                    // Out delivering or on the way back: no longer waiting at the depot
+                                    if (!status.canBid() && waitingAgents.remove(sender) != null) {
+                                        closeCompletedAuctions();
+                                    }
+                                }
+                            }
                         }
                         break;
 
                     default:
-                        System.out.println("MasterAgent: Unknown message type from " + sender);
+                        EventLog.warn(LOG_SOURCE, "message.unknown", "performative", msg.getPerformative(), "from", sender);
                 }
-            } else {
+            } else if (request == null) {
                 block();
             }
         }
     }
 
-    private void handlePackagePickup(String packageName, String agentName) {
-        SwingUtilities.invokeLater(() -> {
-            gui.addMessage("[PICKUP] " + agentName + " picked up " + packageName);
-            gui.addDeliveringPackage(packageName, agentName);
-        });
+    /**
+     * Packages injected through the O2A queue; auctioned right away if
+     * agents are waiting, like a regenerated package
+     */
+    private void handlePackageArrival(PackageArrival arrival) {
+        boolean agentsWaiting;
+        synchronized (openAuctions) {
+            for (int i = 0; i < arrival.count(); i++) {
+                createPackage();
+            }
+            agentsWaiting = !waitingAgents.isEmpty();
+        }
 
-        packagesInDelivery.put(packageName, agentName);
+        if (agentsWaiting) {
+            LatencyProfile.runAfter(MasterAgent.this, latency.auctionStartDelayMs, () -> {
+                startAuctions();
+            });
+        }
     }
 
-    private void handlePackageRequest(String agentName) {
-        System.out.println("MasterAgent: Received REQUEST from " + agentName + 
-                           ". Available packages: " + availablePackages.size() + 
-                           ", Current auction: " + (currentAuction != null ? "active" : "none"));
-
-        SwingUtilities.invokeLater(() -> {
-            gui.addMessage("[REQUEST] " + agentName + " ready for package assignment");
-        });
+    private void handlePackagePickup(String packageName, String agentName) {
+        events.onMessage("[PICKUP] " + agentName + " picked up " + packageName);
+        events.onPackagePickedUp(packageName, agentName);
 
-        List<String> completedPackages = new ArrayList<>();
-        for (Map.Entry<String, String> entry : packagesInDelivery.entrySet()) {
-            if (entry.getValue().equals(agentName)) {
-                completedPackages.add(entry.getKey());
-            }
+        Integer deliveryTime;
+        synchronized (openAuctions) {
+            deliveryTime = awardedDeliveryTimes.remove(packageName);
         }
+        long doneAt = clock.now() + (deliveryTime != null ? deliveryTime : 0) * 1000L;
 
-        for (String pkgName : completedPackages) {
+        packagesInDelivery.add(packageName, agentName, priorityOf(agentName), doneAt);
+    }
+
+    private void handlePackageRequest(String agentName) {
+        events.onMessage("[REQUEST] " + agentName + " ready for package assignment");
+
+        for (String pkgName : packagesInDelivery.packagesOf(agentName)) {
             handleDeliveryComplete(pkgName, agentName);
         }
 
-        waitingAgents.add(agentName);
+        boolean packagesQueued;
+        synchronized (openAuctions) {
+            EventLog.info(LOG_SOURCE, "request.received", "agent", agentName,
+                    "available", availablePackages.size(), "openAuctions", openAuctions.size());
 
-        if (!availablePackages.isEmpty() && currentAuction == null) {
-            System.out.println("MasterAgent: Starting auction in 500ms...");
-            addBehaviour(new jade.core.behaviours.WakerBehaviour(MasterAgent.this, 500) {
-                @Override
-                protected void onWake() {
-                    startAuction();
-                }
+            waitingAgents.put(agentName, capacityOf(agentName));
+            // A REQUEST is only sent empty-handed from the depot
+            bidderRegistry.put(agentName, new AgentMessage.AgentStatus("IDLE", 0, capacityOf(agentName), 0));
+            packagesQueued = !availablePackages.isEmpty();
+        }
+
+        if (packagesQueued) {
+            EventLog.debug(LOG_SOURCE, "auction.scheduled", "delayMs", latency.auctionStartDelayMs);
+            LatencyProfile.runAfter(MasterAgent.this, latency.auctionStartDelayMs, () -> {
+                startAuctions();
             });
         }
     }
 
     private void handleDeliveryComplete(String packageName, String agentName) {
-        SwingUtilities.invokeLater(() -> {
-            gui.addMessage("[DELIVERY COMPLETE] " + agentName + " delivered " + packageName);
-            gui.removeDeliveringPackage(packageName);
-        });
+        events.onMessage("[DELIVERY COMPLETE] " + agentName + " delivered " + packageName);
+        events.onPackageDelivered(packageName);
 
         packagesInDelivery.remove(packageName);
-        schedulePackageRegeneration(packageName);
+        if (regeneration) {
+            schedulePackageRegeneration(packageName);
+        }
     }
 
-    private void handleTradeNotification(String content) {
-        // Parse: "TRADE_COMPLETE:PackageName:OldAgent:NewAgent"
-        String[] parts = content.split(":");
-        if (parts.length < 4) return;
-        
-        String packageName = parts[1];
-        String oldAgent = parts[2];
-        String newAgent = parts[3];
+    private void handleTradeNotification(AgentMessage.DeliveryReport report) {
+        if (report == null || !report.isTrade()) return;
+
+        String packageName = report.packageName();
+        String oldAgent = report.fromAgent();
+        String newAgent = report.toAgent();
         
-        System.out.println("MasterAgent: *** TRADE NOTIFICATION *** Package " + packageName + 
-                         " transferred from " + oldAgent + " to " + newAgent);
+        EventLog.info(LOG_SOURCE, "trade.notification", "package", packageName,
+                "from", oldAgent, "to", newAgent);
         
         // Update package tracking
-        String currentOwner = packagesInDelivery.get(packageName);
+        String currentOwner = packagesInDelivery.carrierOf(packageName);
         if (currentOwner != null) {
-            System.out.println("MasterAgent: Updating tracking - " + packageName + 
-                             " was with " + currentOwner + ", now with " + newAgent);
-            packagesInDelivery.put(packageName, newAgent);
+            EventLog.debug(LOG_SOURCE, "trade.tracking", "package", packageName,
+                    "was", currentOwner, "now", newAgent);
         } else {
-            System.out.println("MasterAgent: Warning - Package " + packageName + 
-                             " not found in delivery tracking, adding " + newAgent);
-            packagesInDelivery.put(packageName, newAgent);
+            EventLog.warn(LOG_SOURCE, "trade.untracked", "package", packageName, "now", newAgent);
         }
+        packagesInDelivery.move(packageName, newAgent, priorityOf(newAgent));
+        packagesInDelivery.recordTradeAccepted(oldAgent);
+        TRADES_ACCEPTED.increment();
+        events.onTradeResult(packageName, oldAgent, newAgent, true);
         
         // Log in GUI
-        SwingUtilities.invokeLater(() -> {
-            gui.addMessage("[MASTER UPDATED] Package " + packageName + " now tracked under " + newAgent);
-        });
+        events.onMessage("[MASTER UPDATED] Package " + packageName + " now tracked under " + newAgent);
     }
 
-    private void handleTradeQuery(String content, String requesterName) {
-        String[] parts = content.split(":");
-        if (parts.length < 2) return;
-
-        int requesterPriority = Integer.parseInt(parts[1]);
-        int requesterPackages = parts.length >= 3 ? Integer.parseInt(parts[2]) : 0;
-        
-        System.out.println("MasterAgent: Trade query from " + requesterName + " (P:" + requesterPriority + ", Load:" + requesterPackages + ")");
-        System.out.println("MasterAgent: Currently delivering: " + packagesInDelivery);
-
-        StringBuilder opportunities = new StringBuilder();
-        
-        // Count packages per agent for workload analysis
-        Map<String, Integer> agentWorkload = new HashMap<>();
-        for (String agentName : packagesInDelivery.values()) {
-            agentWorkload.put(agentName, agentWorkload.getOrDefault(agentName, 0) + 1);
-        }
-        
-        for (Map.Entry<String, String> entry : packagesInDelivery.entrySet()) {
-            String agentName = entry.getValue();
-            String packageName = entry.getKey();
-
-            int agentIndex = Integer.parseInt(agentName.replace("Agent", "")) - 1;
-            int agentPriority = (agentIndex < AGENT_PRIORITIES.length) ?
-                    AGENT_PRIORITIES[agentIndex] : 1;
-            int agentPackages = agentWorkload.getOrDefault(agentName, 1);
-
-            int priorityDiff = requesterPriority - agentPriority;
-            int workloadDiff = agentPackages - requesterPackages;
-            
-            System.out.println("MasterAgent:   Checking " + agentName + " (P:" + agentPriority + ", Load:" + agentPackages + 
-                             ") with " + packageName);
-            System.out.println("MasterAgent:     Priority diff: " + priorityDiff + ", Workload diff: " + workloadDiff);
-
-            // Match if priority advantage OR workload imbalance
-            boolean priorityMatch = priorityDiff >= 2;
-            boolean workloadMatch = workloadDiff >= 2;
-            
-            if (priorityMatch || workloadMatch) {
-                String reason = priorityMatch ? "priority" : "workload";
-                System.out.println("MasterAgent:   ✓ MATCH (" + reason + ")! Adding to opportunities");
-                if (opportunities.length() > 0) opportunities.append(",");
-                opportunities.append(agentName).append(":").append(packageName);
-            } else {
-                System.out.println("MasterAgent:   ✗ No match (priority diff: " + priorityDiff + ", workload diff: " + workloadDiff + ")");
-            }
+    /**
+     * Answered from the TradeIndex buckets in O(matches); only the TRADE_TOP_K
+     * opportunities with the highest expected gain are sent, best first
+     */
+    private void handleTradeQuery(AgentMessage.TradeQuery query, String requesterName) {
+        TRADE_QUERIES.increment();
+        List<TradeIndex.Opportunity> matches = packagesInDelivery.rankOpportunities(
+                requesterName, query.priority(), query.load(), clock.now(), TRADE_TOP_K);
+
+        List<String> opportunityAgents = new ArrayList<>(matches.size());
+        List<String> opportunityPackages = new ArrayList<>(matches.size());
+        for (TradeIndex.Opportunity match : matches) {
+            opportunityAgents.add(match.agentName());
+            opportunityPackages.add(match.packageName());
         }
 
-        System.out.println("MasterAgent: Sending opportunities: " + opportunities.toString());
+        // Opportunities are immutable records, formatted later on the log writer thread
+        EventLog.info(LOG_SOURCE, "trade.query", "requester", requesterName, "priority", query.priority(),
+                "load", query.load(), "inDelivery", packagesInDelivery.size(), "ranking", matches);
 
         ACLMessage response = new ACLMessage(ACLMessage.INFORM);
-        response.setContent("TRADE_OPPORTUNITIES:" + opportunities.toString());
+        MessageCodec.write(response, new AgentMessage.TradeOpportunities(opportunityAgents, opportunityPackages));
         response.addReceiver(new AID(requesterName, AID.ISLOCALNAME));
         send(response);
     }
 
     @Override
     protected void takeDown() {
-        if (auctionTimer != null) {
-            auctionTimer.stop();
+        synchronized (openAuctions) {
+            for (AuctionInfo auction : openAuctions.values()) {
+                auction.timer.cancel();
+            }
+            if (openBatch != null) {
+                openBatch.timer.cancel();
+            }
+            if (planTimer != null) {
+                planTimer.cancel();
+            }
         }
 
-        for (Timer timer : regenerationTimers.values()) {
-            timer.stop();
+        for (SimulationClock.Handle timer : regenerationTimers.values()) {
+            timer.cancel();
         }
 
-        System.out.println("MasterAgent: Shutting down");
+        EventLog.info(LOG_SOURCE, "shutdown");
     }
 }
@@ -0,0 +1,619 @@
+package testCase_3;
+
+import jade.lang.acl.ACLMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MessageCodec.java
+ *
+ * Encodes AgentMessage records into ACL message content and back.
+ *
+ * Binary codec (default):
+ * - Carried as ACLMessage byte content, language "vrp-binary"
+ * - One tag byte, then the record fields in order
+ * - ints/longs as zig-zag varints, strings as varint length + UTF-8 bytes
+ * - Encoding reuses a per-thread buffer; only the final byte[] is allocated
+ *
+ * Text codec (fallback, -Dvrp.codec=text):
+ * - The original "a:b:c:d" strings, so messages stay readable in the JADE sniffer
+ * - Parsed with indexOf instead of String.split
+ *
+ * read() accepts both formats whatever the local setting is.
+ */
+public final class MessageCodec {
+
+    public static final String BINARY_LANGUAGE = "vrp-binary";
+
+    private static final boolean USE_BINARY =
+            !"text".equalsIgnoreCase(System.getProperty("vrp.codec", "binary"));
+
+    private static final byte TAG_CFP = 1;
+    private static final byte TAG_BID = 2;
+    private static final byte TAG_AWARD = 3;
+    private static final byte TAG_TRADE_QUERY = 4;
+    private static final byte TAG_TRADE_OFFER = 5;
+    private static final byte TAG_DELIVERY_REPORT = 6;
+    private static final byte TAG_TRADE_OPPORTUNITIES = 7;
+    private static final byte TAG_CFP_BUNDLE = 8;
+    private static final byte TAG_BID_BUNDLE = 9;
+    private static final byte TAG_AGENT_STATUS = 10;
+    private static final byte TAG_AWARD_BUNDLE = 11;
+
+    private static final String TRADE_QUERY_PREFIX = "REQUEST_TRADE_OPPORTUNITIES";
+    private static final String TRADE_COMPLETE_PREFIX = "TRADE_COMPLETE";
+    private static final String OPPORTUNITIES_PREFIX = "TRADE_OPPORTUNITIES:";
+    private static final String CFP_BUNDLE_PREFIX = "CFP_BUNDLE:";
+    private static final String BID_BUNDLE_PREFIX = "BID_BUNDLE:";
+    private static final String AWARD_BUNDLE_PREFIX = "AWARD_BUNDLE:";
+    private static final String AGENT_STATUS_PREFIX = "AGENT_STATUS";
+
+    private static final ThreadLocal<ByteWriter> WRITER = ThreadLocal.withInitial(ByteWriter::new);
+
+    private MessageCodec() {
+    }
+
+    // ============================================================
+    // PUBLIC API
+    // ============================================================
+
+    /**
+     * Store the record as the content of msg
+     */
+    public static void write(ACLMessage msg, AgentMessage content) {
+        if (USE_BINARY) {
+            msg.setLanguage(BINARY_LANGUAGE);
+            msg.setByteSequenceContent(encode(content));
+        } else {
+            msg.setContent(encodeText(content));
+        }
+    }
+
+    /**
+     * Decode the content of msg
+     *
+     * @return the record, or null if msg does not carry a record of the expected type
+     * @throws IllegalArgumentException if the content is malformed
+     */
+    public static <T extends AgentMessage> T read(ACLMessage msg, Class<T> type) {
+        AgentMessage decoded;
+        if (BINARY_LANGUAGE.equals(msg.getLanguage())) {
+            decoded = decode(msg.getByteSequenceContent());
+        } else {
+            String sender = msg.getSender() != null ? msg.getSender().getLocalName() : "";
+            decoded = decodeText(msg.getContent(), type, sender);
+        }
+        return type.isInstance(decoded) ? type.cast(decoded) : null;
+    }
+
+    // ============================================================
+    // BINARY CODEC
+    // ============================================================
+
+    static byte[] encode(AgentMessage content) {
+        ByteWriter w = WRITER.get();
+        w.reset();
+
+        if (content instanceof AgentMessage.Cfp cfp) {
+            w.writeByte(TAG_CFP);
+            writeCfp(w, cfp);
+        } else if (content instanceof AgentMessage.Bid bid) {
+            w.writeByte(TAG_BID);
+            writeBid(w, bid);
+        } else if (content instanceof AgentMessage.CfpBundle bundle) {
+            w.writeByte(TAG_CFP_BUNDLE);
+            w.writeInt(bundle.packages().size());
+            for (AgentMessage.Cfp cfp : bundle.packages()) {
+                writeCfp(w, cfp);
+            }
+        } else if (content instanceof AgentMessage.BidBundle bundle) {
+            w.writeByte(TAG_BID_BUNDLE);
+            w.writeInt(bundle.freeSlots());
+            w.writeInt(bundle.bids().size());
+            for (AgentMessage.Bid bid : bundle.bids()) {
+                writeBid(w, bid);
+            }
+        } else if (content instanceof AgentMessage.Award award) {
+            w.writeByte(TAG_AWARD);
+            writeAward(w, award);
+        } else if (content instanceof AgentMessage.AwardBundle bundle) {
+            w.writeByte(TAG_AWARD_BUNDLE);
+            w.writeInt(bundle.stops().size());
+            for (AgentMessage.Award award : bundle.stops()) {
+                writeAward(w, award);
+            }
+        } else if (content instanceof AgentMessage.TradeQuery query) {
+            w.writeByte(TAG_TRADE_QUERY);
+            w.writeInt(query.priority());
+            w.writeInt(query.load());
+        } else if (content instanceof AgentMessage.TradeOffer offer) {
+            w.writeByte(TAG_TRADE_OFFER);
+            w.writeString(offer.packageName());
+            w.writeInt(offer.priority());
+            w.writeInt(offer.load());
+        } else if (content instanceof AgentMessage.DeliveryReport report) {
+            w.writeByte(TAG_DELIVERY_REPORT);
+            w.writeString(report.packageName());
+            w.writeString(report.fromAgent());
+            w.writeString(report.toAgent());
+        } else if (content instanceof AgentMessage.AgentStatus status) {
+            w.writeByte(TAG_AGENT_STATUS);
+            w.writeString(status.state());
+            w.writeInt(status.load());
+            w.writeInt(status.capacity());
+            w.writeInt(status.timeToMaster());
+        } else if (content instanceof AgentMessage.TradeOpportunities opps) {
+            w.writeByte(TAG_TRADE_OPPORTUNITIES);
+            w.writeInt(opps.packages().size());
+            for (int i = 0; i < opps.packages().size(); i++) {
+                w.writeString(opps.agents().get(i));
+                w.writeString(opps.packages().get(i));
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown message type: " + content);
+        }
+
+        return w.toByteArray();
+    }
+
+    private static void writeCfp(ByteWriter w, AgentMessage.Cfp cfp) {
+        w.writeString(cfp.packageName());
+        w.writeInt(cfp.deliveryTime());
+        w.writeString(cfp.type());
+        w.writeInt(cfp.urgencyScore());
+        w.writeInt(cfp.location());
+    }
+
+    private static void writeAward(ByteWriter w, AgentMessage.Award award) {
+        w.writeString(award.packageName());
+        w.writeInt(award.deliveryTime());
+        w.writeString(award.type());
+        w.writeInt(award.location());
+    }
+
+    private static void writeBid(ByteWriter w, AgentMessage.Bid bid) {
+        w.writeString(bid.packageName());
+        w.writeInt(bid.bidScore());
+        w.writeInt(bid.priority());
+        w.writeLong(bid.timestamp());
+    }
+
+    static AgentMessage decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException("Empty binary content");
+        }
+
+        ByteReader r = new ByteReader(data);
+        byte tag = r.readByte();
+
+        switch (tag) {
+            case TAG_CFP:
+                return readCfp(r);
+            case TAG_BID:
+                return readBid(r);
+            case TAG_CFP_BUNDLE: {
+                int count = r.readInt();
+                List<AgentMessage.Cfp> packages = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    packages.add(readCfp(r));
+                }
+                return new AgentMessage.CfpBundle(packages);
+            }
+            case TAG_BID_BUNDLE: {
+                int freeSlots = r.readInt();
+                int count = r.readInt();
+                List<AgentMessage.Bid> bids = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    bids.add(readBid(r));
+                }
+                return new AgentMessage.BidBundle(bids, freeSlots);
+            }
+            case TAG_AWARD:
+                return readAward(r);
+            case TAG_AWARD_BUNDLE: {
+                int count = r.readInt();
+                List<AgentMessage.Award> stops = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    stops.add(readAward(r));
+                }
+                return new AgentMessage.AwardBundle(stops);
+            }
+            case TAG_TRADE_QUERY:
+                return new AgentMessage.TradeQuery(r.readInt(), r.readInt());
+            case TAG_TRADE_OFFER:
+                return new AgentMessage.TradeOffer(r.readString(), r.readInt(), r.readInt());
+            case TAG_DELIVERY_REPORT:
+                return new AgentMessage.DeliveryReport(r.readString(), r.readString(), r.readString());
+            case TAG_AGENT_STATUS:
+                return new AgentMessage.AgentStatus(r.readString(), r.readInt(), r.readInt(), r.readInt());
+            case TAG_TRADE_OPPORTUNITIES: {
+                int count = r.readInt();
+                List<String> agents = new ArrayList<>(count);
+                List<String> packages = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    agents.add(r.readString());
+                    packages.add(r.readString());
+                }
+                return new AgentMessage.TradeOpportunities(agents, packages);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown message tag: " + tag);
+        }
+    }
+
+    private static AgentMessage.Cfp readCfp(ByteReader r) {
+        return new AgentMessage.Cfp(r.readString(), r.readInt(), r.readString(), r.readInt(), r.readInt());
+    }
+
+    private static AgentMessage.Bid readBid(ByteReader r) {
+        return new AgentMessage.Bid(r.readString(), r.readInt(), r.readInt(), r.readLong());
+    }
+
+    private static AgentMessage.Award readAward(ByteReader r) {
+        return new AgentMessage.Award(r.readString(), r.readInt(), r.readString(), r.readInt());
+    }
+
+    /**
+     * Growable output buffer, one per thread
+     */
+    private static final class ByteWriter {
+        private byte[] buf = new byte[128];
+        private int pos;
+
+        void reset() {
+            pos = 0;
+        }
+
+        void writeByte(int b) {
+            ensure(1);
+            buf[pos++] = (byte) b;
+        }
+
+        void writeInt(int value) {
+            writeVarLong((value << 1) ^ (value >> 31));
+        }
+
+        void writeLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        private void writeVarLong(long v) {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[pos++] = (byte) v;
+        }
+
+        void writeString(String s) {
+            int len = s.length();
+            boolean ascii = true;
+            for (int i = 0; i < len; i++) {
+                if (s.charAt(i) >= 0x80) {
+                    ascii = false;
+                    break;
+                }
+            }
+
+            if (ascii) {
+                writeInt(len);
+                ensure(len);
+                for (int i = 0; i < len; i++) {
+                    buf[pos++] = (byte) s.charAt(i);
+                }
+            } else {
+                byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+                writeInt(utf8.length);
+                ensure(utf8.length);
+                System.arraycopy(utf8, 0, buf, pos, utf8.length);
+                pos += utf8.length;
+            }
+        }
+
+        private void ensure(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+    }
+
+    private static final class ByteReader {
+        private final byte[] buf;
+        private int pos;
+
+        ByteReader(byte[] buf) {
+            this.buf = buf;
+        }
+
+        byte readByte() {
+            check(1);
+            return buf[pos++];
+        }
+
+        int readInt() {
+            long v = readVarLong();
+            return (int) ((v >>> 1) ^ -(v & 1));
+        }
+
+        long readLong() {
+            long v = readVarLong();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        private long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        String readString() {
+            int len = readInt();
+            check(len);
+            String s = new String(buf, pos, len, StandardCharsets.UTF_8);
+            pos += len;
+            return s;
+        }
+
+        private void check(int n) {
+            if (n < 0 || pos + n > buf.length) {
+                throw new IllegalArgumentException("Truncated binary content");
+            }
+        }
+    }
+
+    // ============================================================
+    // TEXT CODEC
+    // ============================================================
+
+    static String encodeText(AgentMessage content) {
+        StringBuilder sb = new StringBuilder(48);
+
+        if (content instanceof AgentMessage.Cfp cfp) {
+            appendCfp(sb, cfp);
+        } else if (content instanceof AgentMessage.Bid bid) {
+            appendBid(sb, bid);
+        } else if (content instanceof AgentMessage.CfpBundle bundle) {
+            sb.append(CFP_BUNDLE_PREFIX);
+            for (int i = 0; i < bundle.packages().size(); i++) {
+                if (i > 0) sb.append(',');
+                appendCfp(sb, bundle.packages().get(i));
+            }
+        } else if (content instanceof AgentMessage.BidBundle bundle) {
+            sb.append(BID_BUNDLE_PREFIX).append(bundle.freeSlots());
+            for (AgentMessage.Bid bid : bundle.bids()) {
+                sb.append(',');
+                appendBid(sb, bid);
+            }
+        } else if (content instanceof AgentMessage.Award award) {
+            appendAward(sb, award);
+        } else if (content instanceof AgentMessage.AwardBundle bundle) {
+            sb.append(AWARD_BUNDLE_PREFIX);
+            for (int i = 0; i < bundle.stops().size(); i++) {
+                if (i > 0) sb.append(',');
+                appendAward(sb, bundle.stops().get(i));
+            }
+        } else if (content instanceof AgentMessage.TradeQuery query) {
+            sb.append(TRADE_QUERY_PREFIX).append(':').append(query.priority()).append(':').append(query.load());
+        } else if (content instanceof AgentMessage.TradeOffer offer) {
+            sb.append(offer.packageName()).append(':').append(offer.priority()).append(':').append(offer.load());
+        } else if (content instanceof AgentMessage.DeliveryReport report) {
+            if (report.isTrade()) {
+                sb.append(TRADE_COMPLETE_PREFIX).append(':').append(report.packageName()).append(':')
+                        .append(report.fromAgent()).append(':').append(report.toAgent());
+            } else {
+                sb.append(report.packageName());
+            }
+        } else if (content instanceof AgentMessage.AgentStatus status) {
+            sb.append(AGENT_STATUS_PREFIX).append(':').append(status.state()).append(':').append(status.load())
+                    .append(':').append(status.capacity()).append(':').append(status.timeToMaster());
+        } else if (content instanceof AgentMessage.TradeOpportunities opps) {
+            sb.append(OPPORTUNITIES_PREFIX);
+            for (int i = 0; i < opps.packages().size(); i++) {
+                if (i > 0) sb.append(',');
+                sb.append(opps.agents().get(i)).append(':').append(opps.packages().get(i));
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown message type: " + content);
+        }
+
+        return sb.toString();
+    }
+
+    private static void appendCfp(StringBuilder sb, AgentMessage.Cfp cfp) {
+        sb.append(cfp.packageName()).append(':').append(cfp.deliveryTime()).append(':')
+                .append(cfp.type()).append(':').append(cfp.urgencyScore()).append(':').append(cfp.location());
+    }
+
+    private static void appendAward(StringBuilder sb, AgentMessage.Award award) {
+        sb.append(award.packageName()).append(':').append(award.deliveryTime()).append(':')
+                .append(award.type()).append(':').append(award.location());
+    }
+
+    private static void appendBid(StringBuilder sb, AgentMessage.Bid bid) {
+        sb.append(bid.packageName()).append(':').append(bid.bidScore()).append(':')
+                .append(bid.priority()).append(':').append(bid.timestamp());
+    }
+
+    static AgentMessage decodeText(String content, Class<?> type, String sender) {
+        if (content == null) {
+            throw new IllegalArgumentException("Empty text content");
+        }
+
+        TextReader r = new TextReader(content, ':');
+
+        if (type == AgentMessage.Cfp.class) {
+            return readCfp(r);
+        }
+        if (type == AgentMessage.Bid.class) {
+            return readBid(r);
+        }
+        if (type == AgentMessage.CfpBundle.class) {
+            if (!content.startsWith(CFP_BUNDLE_PREFIX)) {
+                return null;
+            }
+            List<AgentMessage.Cfp> packages = new ArrayList<>();
+            TextReader entries = new TextReader(content.substring(CFP_BUNDLE_PREFIX.length()), ',');
+            while (entries.hasNext()) {
+                packages.add(readCfp(new TextReader(entries.next(), ':')));
+            }
+            return new AgentMessage.CfpBundle(packages);
+        }
+        if (type == AgentMessage.BidBundle.class) {
+            if (!content.startsWith(BID_BUNDLE_PREFIX)) {
+                return null;
+            }
+            TextReader entries = new TextReader(content.substring(BID_BUNDLE_PREFIX.length()), ',');
+            int freeSlots = entries.nextInt();
+            List<AgentMessage.Bid> bids = new ArrayList<>();
+            while (entries.hasNext()) {
+                bids.add(readBid(new TextReader(entries.next(), ':')));
+            }
+            return new AgentMessage.BidBundle(bids, freeSlots);
+        }
+        if (type == AgentMessage.Award.class) {
+            return readAward(r);
+        }
+        if (type == AgentMessage.AwardBundle.class) {
+            if (!content.startsWith(AWARD_BUNDLE_PREFIX)) {
+                return null;
+            }
+            List<AgentMessage.Award> stops = new ArrayList<>();
+            TextReader entries = new TextReader(content.substring(AWARD_BUNDLE_PREFIX.length()), ',');
+            while (entries.hasNext()) {
+                stops.add(readAward(new TextReader(entries.next(), ':')));
+            }
+            return new AgentMessage.AwardBundle(stops);
+        }
+        if (type == AgentMessage.TradeQuery.class) {
+            if (!TRADE_QUERY_PREFIX.equals(r.next())) {
+                return null;
+            }
+            int priority = r.nextInt();
+            return new AgentMessage.TradeQuery(priority, r.hasNext() ? r.nextInt() : 0);
+        }
+        if (type == AgentMessage.TradeOffer.class) {
+            String packageName = r.next();
+            int priority = r.nextInt();
+            return new AgentMessage.TradeOffer(packageName, priority, r.hasNext() ? r.nextInt() : 0);
+        }
+        if (type == AgentMessage.DeliveryReport.class) {
+            if (content.startsWith(TRADE_COMPLETE_PREFIX + ":")) {
+                r.next();
+                return new AgentMessage.DeliveryReport(r.next(), r.next(), r.next());
+            }
+            return new AgentMessage.DeliveryReport(content, "", sender);
+        }
+        if (type == AgentMessage.AgentStatus.class) {
+            if (!AGENT_STATUS_PREFIX.equals(r.next())) {
+                return null;
+            }
+            return new AgentMessage.AgentStatus(r.next(), r.nextInt(), r.nextInt(), r.nextInt());
+        }
+        if (type == AgentMessage.TradeOpportunities.class) {
+            if (!content.startsWith(OPPORTUNITIES_PREFIX)) {
+                return null;
+            }
+            List<String> agents = new ArrayList<>();
+            List<String> packages = new ArrayList<>();
+            TextReader pairs = new TextReader(content.substring(OPPORTUNITIES_PREFIX.length()), ',');
+            while (pairs.hasNext()) {
+                String pair = pairs.next();
+                int colon = pair.indexOf(':');
+                if (colon > 0) {
+                    agents.add(pair.substring(0, colon));
+                    packages.add(pair.substring(colon + 1));
+                }
+            }
+            return new AgentMessage.TradeOpportunities(agents, packages);
+        }
+
+        throw new IllegalArgumentException("Unknown message type: " + type.getSimpleName());
+    }
+
+    private static AgentMessage.Cfp readCfp(TextReader r) {
+        String packageName = r.next();
+        int deliveryTime = r.nextInt();
+        String type = r.next();
+        int urgencyScore = r.nextInt();
+        return new AgentMessage.Cfp(packageName, deliveryTime, type, urgencyScore,
+                r.hasNext() ? r.nextInt() : DeliveryMap.DEPOT);
+    }
+
+    private static AgentMessage.Bid readBid(TextReader r) {
+        return new AgentMessage.Bid(r.next(), r.nextInt(), r.nextInt(), r.nextLong());
+    }
+
+    private static AgentMessage.Award readAward(TextReader r) {
+        String packageName = r.next();
+        int deliveryTime = r.nextInt();
+        String packageType = r.next();
+        return new AgentMessage.Award(packageName, deliveryTime, packageType,
+                r.hasNext() ? r.nextInt() : DeliveryMap.DEPOT);
+    }
+
+    /**
+     * Splits on a single character without regex or an intermediate array
+     */
+    private static final class TextReader {
+        private final String s;
+        private final char separator;
+        private int pos;
+
+        TextReader(String s, char separator) {
+            this.s = s;
+            this.separator = separator;
+        }
+
+        boolean hasNext() {
+            return pos < s.length();
+        }
+
+        String next() {
+            if (pos > s.length()) {
+                throw new IllegalArgumentException("Missing field in: " + s);
+            }
+            int end = s.indexOf(separator, pos);
+            if (end < 0) {
+                end = s.length();
+            }
+            String field = s.substring(pos, end);
+            pos = end + 1;
+            return field;
+        }
+
+        int nextInt() {
+            return (int) nextLong();
+        }
+
+        long nextLong() {
+            if (pos >= s.length()) {
+                throw new IllegalArgumentException("Missing number in: " + s);
+            }
+            int end = s.indexOf(separator, pos);
+            if (end < 0) {
+                end = s.length();
+            }
+            try {
+                long value = Long.parseLong(s, pos, end, 10);
+                pos = end + 1;
+                return value;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad number in: " + s, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package testCase_3;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Metrics.java
+ *
+ * Counters, gauges and latency histograms for the agents' hot paths.
+ *
+ * - Counter: LongAdder, cheap to increment from many agent threads
+ * - Gauge: sampled from a LongSupplier only when the metrics are read
+ * - Histogram: log-linear buckets (HDR style, 16 sub-buckets per power of
+ *   two, so any recorded value is reported within ~6%) with count, mean and max
+ *
+ * Metrics are published as attributes of the JMX bean testCase_3:type=Metrics
+ * (jconsole, VisualVM) and dumped every few seconds as a "metrics.snapshot"
+ * event to the EventLog, counters with their rate since the previous dump.
+ *
+ * Configuration:
+ *   -Dvrp.metrics=true          (default false)
+ *   -Dvrp.metrics.dump=10       (seconds between dumps, 0 = JMX only)
+ *
+ * When disabled every record call is a branch on a static final flag that
+ * the JIT removes, and nothing is registered or started.
+ */
+public final class Metrics {
+
+    public static final boolean ENABLED = Boolean.getBoolean("vrp.metrics");
+
+    private static final long DUMP_SECONDS = Long.getLong("vrp.metrics.dump", 10);
+    private static final String LOG_SOURCE = "Metrics";
+    private static final String OBJECT_NAME = "testCase_3:type=Metrics";
+
+    // Sorted so the JMX attributes and the dump come out in a stable order
+    private static final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private static final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+    private static final Map<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+
+    static {
+        if (ENABLED) {
+            start();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * Counter registered under name; the same instance for every caller
+     */
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    /**
+     * Histogram registered under name
+     *
+     * @param unit - Unit of the recorded values, part of the attribute names (e.g. "us")
+     */
+    public static Histogram histogram(String name, String unit) {
+        return histograms.computeIfAbsent(unit.isEmpty() ? name : name + "." + unit, n -> new Histogram());
+    }
+
+    /**
+     * Register (or replace) a gauge; ignored when metrics are disabled
+     */
+    public static void gauge(String name, LongSupplier supplier) {
+        if (ENABLED) {
+            gauges.put(name, supplier);
+        }
+    }
+
+    public static final class Counter {
+
+        private final LongAdder count = new LongAdder();
+
+        Counter() {
+        }
+
+        public void increment() {
+            if (ENABLED) {
+                count.increment();
+            }
+        }
+
+        public void add(long delta) {
+            if (ENABLED) {
+                count.add(delta);
+            }
+        }
+
+        public long get() {
+            return count.sum();
+        }
+    }
+
+    /**
+     * Non-negative values; negative values are recorded as 0
+     */
+    public static final class Histogram {
+
+        private static final int SUB_BUCKET_BITS = 5;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int HALF = SUB_BUCKETS / 2;
+        // Highest index is for Long.MAX_VALUE: shift 58, top bits 31
+        private static final int BUCKETS = 64 * HALF;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        Histogram() {
+        }
+
+        public void record(long value) {
+            if (!ENABLED) {
+                return;
+            }
+            long v = Math.max(0, value);
+            buckets.incrementAndGet(indexOf(v));
+            count.increment();
+            sum.add(v);
+            if (v > max.get()) {
+                max.accumulateAndGet(v, Math::max);
+            }
+        }
+
+        /**
+         * Values below SUB_BUCKETS get their own bucket; above, each power of
+         * two is split into HALF buckets keyed by the top SUB_BUCKET_BITS bits
+         */
+        static int indexOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+            return shift * HALF + (int) (value >>> shift);
+        }
+
+        /**
+         * Highest value that falls into the bucket
+         */
+        static long highestValueAt(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int shift = index / HALF - 1;
+            long topBits = index - (long) shift * HALF;
+            return ((topBits + 1) << shift) - 1;
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public double mean() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) sum.sum() / n;
+        }
+
+        public long max() {
+            return max.get();
+        }
+
+        /**
+         * @param fraction - 0.5 for the median, 0.99 for p99
+         * @return upper bound of the bucket holding that rank, capped at max
+         */
+        public long percentile(double fraction) {
+            long total = 0;
+            long[] snapshot = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = buckets.get(i);
+                total += snapshot[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(fraction * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueAt(i), max.get());
+                }
+            }
+            return max.get();
+        }
+    }
+
+    // ============================================================
+    // PUBLISHING
+    // ============================================================
+
+    private static void start() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsBean(), new ObjectName(OBJECT_NAME));
+        } catch (Exception e) {
+            EventLog.warn(LOG_SOURCE, "metrics.jmx_failed", "error", e.toString());
+        }
+
+        if (DUMP_SECONDS > 0) {
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+            Map<String, Long> previousCounts = new HashMap<>();
+            dumper.scheduleAtFixedRate(() -> dump(previousCounts), DUMP_SECONDS, DUMP_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Every metric as name -> value, histograms expanded into
+     * count / mean / p50 / p90 / p99 / max
+     */
+    static Map<String, Object> snapshot() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.get()));
+        gauges.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        histograms.forEach((name, histogram) -> {
+            values.put(name + ".count", histogram.count());
+            values.put(name + ".mean", Math.round(histogram.mean()));
+            values.put(name + ".p50", histogram.percentile(0.50));
+            values.put(name + ".p90", histogram.percentile(0.90));
+            values.put(name + ".p99", histogram.percentile(0.99));
+            values.put(name + ".max", histogram.max());
+        });
+        return values;
+    }
+
+    private static void dump(Map<String, Long> previousCounts) {
+        List<Object> fields = new ArrayList<>();
+        snapshot().forEach((name, value) -> {
+            fields.add(name);
+            fields.add(value);
+        });
+        counters.forEach((name, counter) -> {
+            long count = counter.get();
+            Long previous = previousCounts.put(name, count);
+            fields.add(name + ".perSecond");
+            fields.add((count - (previous == null ? 0 : previous)) / (double) DUMP_SECONDS);
+        });
+        EventLog.info(LOG_SOURCE, "metrics.snapshot", fields.toArray());
+    }
+
+    /**
+     * Read-only JMX view; the attribute list follows the metrics registered so far
+     */
+    private static final class MetricsBean implements DynamicMBean {
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Object value = snapshot().get(attribute);
+            if (value == null) {
+                throw new AttributeNotFoundException(attribute);
+            }
+            return value;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) {
+            throw new UnsupportedOperationException("Metrics are read-only");
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            Map<String, Object> values = snapshot();
+            AttributeList list = new AttributeList();
+            for (String name : attributes) {
+                if (values.containsKey(name)) {
+                    list.add(new Attribute(name, values.get(name)));
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            throw new UnsupportedOperationException(actionName);
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            snapshot().forEach((name, value) -> attributes.add(new MBeanAttributeInfo(
+                    name, value.getClass().getName(), name, true, false, false)));
+            return new MBeanInfo(Metrics.class.getName(), "VRP agent metrics",
+                    attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+        }
+    }
+}
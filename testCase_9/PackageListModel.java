@@ -0,0 +1,144 @@
+package testCase_3;
+
+import javax.swing.AbstractListModel;
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * PackageListModel.java
+ *
+ * List model behind the Available / Being Delivered package lists.
+ *
+ * - put() and remove() only stage the change; the first staged change posts
+ *   one flush to the EDT, which runs after every event already queued, so a
+ *   burst of package events becomes one model update
+ * - flush() fires incremental intervalRemoved / intervalAdded /
+ *   contentsChanged events for exactly the rows that changed
+ * - Rows keep insertion order, like the old per-package panels
+ *
+ * All methods must be called on the EDT.
+ */
+public class PackageListModel extends AbstractListModel<PackageListModel.Entry> {
+
+    /**
+     * One row: package name and a detail (delivery time or carrying agent)
+     */
+    public record Entry(String packageName, String detail) {
+    }
+
+    private final List<Entry> rows = new ArrayList<>();
+    private final Map<String, Integer> rowOf = new HashMap<>();
+
+    // Staged until the next flush; a later call for the same package wins
+    private final Map<String, Entry> pendingPuts = new LinkedHashMap<>();
+    private final Set<String> pendingRemoves = new HashSet<>();
+    private boolean flushPosted;
+
+    @Override
+    public int getSize() {
+        return rows.size();
+    }
+
+    @Override
+    public Entry getElementAt(int index) {
+        return rows.get(index);
+    }
+
+    /**
+     * Add a row, or replace the detail of an existing one
+     */
+    public void put(String packageName, String detail) {
+        assert SwingUtilities.isEventDispatchThread() : "Must be called on EDT";
+
+        pendingRemoves.remove(packageName);
+        pendingPuts.put(packageName, new Entry(packageName, detail));
+        postFlush();
+    }
+
+    public void remove(String packageName) {
+        assert SwingUtilities.isEventDispatchThread() : "Must be called on EDT";
+
+        pendingPuts.remove(packageName);
+        if (rowOf.containsKey(packageName)) {
+            pendingRemoves.add(packageName);
+            postFlush();
+        }
+    }
+
+    private void postFlush() {
+        if (!flushPosted) {
+            flushPosted = true;
+            SwingUtilities.invokeLater(this::flush);
+        }
+    }
+
+    /**
+     * Apply every staged change. Removals are compacted in one pass and
+     * reported from the bottom up, so each event's indices stay valid.
+     */
+    public void flush() {
+        assert SwingUtilities.isEventDispatchThread() : "Must be called on EDT";
+        flushPosted = false;
+
+        if (!pendingRemoves.isEmpty()) {
+            int oldSize = rows.size();
+            List<int[]> removedRuns = new ArrayList<>();
+            int write = 0;
+            int runStart = -1;
+
+            for (int read = 0; read < oldSize; read++) {
+                Entry row = rows.get(read);
+                if (pendingRemoves.contains(row.packageName())) {
+                    rowOf.remove(row.packageName());
+                    if (runStart < 0) {
+                        runStart = read;
+                    }
+                    continue;
+                }
+                if (runStart >= 0) {
+                    removedRuns.add(new int[] {runStart, read - 1});
+                    runStart = -1;
+                }
+                if (write != read) {
+                    rows.set(write, row);
+                    rowOf.put(row.packageName(), write);
+                }
+                write++;
+            }
+            if (runStart >= 0) {
+                removedRuns.add(new int[] {runStart, oldSize - 1});
+            }
+            rows.subList(write, oldSize).clear();
+            pendingRemoves.clear();
+
+            for (int i = removedRuns.size() - 1; i >= 0; i--) {
+                fireIntervalRemoved(this, removedRuns.get(i)[0], removedRuns.get(i)[1]);
+            }
+        }
+
+        if (!pendingPuts.isEmpty()) {
+            int firstAdded = rows.size();
+            for (Entry entry : pendingPuts.values()) {
+                Integer index = rowOf.get(entry.packageName());
+                if (index == null) {
+                    rowOf.put(entry.packageName(), rows.size());
+                    rows.add(entry);
+                } else if (!rows.get(index).equals(entry)) {
+                    rows.set(index, entry);
+                    fireContentsChanged(this, index, index);
+                }
+            }
+            pendingPuts.clear();
+
+            if (rows.size() > firstAdded) {
+                fireIntervalAdded(this, firstAdded, rows.size() - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package testCase_3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RoutePlan.java
+ *
+ * Standing plan of the Master's incremental solver mode
+ * (-Dvrp.auction=solver -Dvrp.solver.incremental=true): one route per agent
+ * waiting at the depot, kept across arrivals instead of solved from scratch.
+ *
+ * - A new package goes where it adds the least travel time (cheapest
+ *   insertion) among the routes with a free slot
+ * - Each route caches, per DeliveryMap node, its cheapest insertion delta and
+ *   position. An arrival reads one cache entry per route; only the route
+ *   that took the package recomputes its entries
+ * - After an insertion only that route is re-ordered with RoutePlanner,
+ *   every other route stays as it is
+ *
+ * Not thread-safe: the MasterAgent guards it with synchronized (openAuctions).
+ *
+ * @param <T> - Planned item (the Master's package)
+ */
+final class RoutePlan<T> {
+
+    private static final int UNKNOWN = -1;
+
+    private final DeliveryMap map;
+    // Agent -> next trip, in the order the agents joined the plan
+    private final Map<String, Route<T>> routes = new LinkedHashMap<>();
+
+    private static final class Route<T> {
+        final int capacity;
+        final List<T> items = new ArrayList<>();
+        // Destination of each item, same order as items
+        final int[] stops;
+        // Per map node: cheapest insertion delta and position; position UNKNOWN until computed
+        final int[] cachedDelta;
+        final int[] cachedPosition;
+
+        Route(int capacity, int nodes) {
+            this.capacity = capacity;
+            this.stops = new int[capacity];
+            this.cachedDelta = new int[nodes];
+            this.cachedPosition = new int[nodes];
+            Arrays.fill(cachedPosition, UNKNOWN);
+        }
+
+        boolean isFull() {
+            return items.size() >= capacity;
+        }
+
+        int insertionDelta(DeliveryMap map, int location) {
+            if (cachedPosition[location] == UNKNOWN) {
+                int n = items.size();
+                int bestDelta = Integer.MAX_VALUE;
+                int bestPosition = 0;
+                for (int p = 0; p <= n; p++) {
+                    int before = p == 0 ? DeliveryMap.DEPOT : stops[p - 1];
+                    int after = p == n ? DeliveryMap.DEPOT : stops[p];
+                    int delta = map.travelSeconds(before, location) + map.travelSeconds(location, after)
+                            - map.travelSeconds(before, after);
+                    if (delta < bestDelta) {
+                        bestDelta = delta;
+                        bestPosition = p;
+                    }
+                }
+                cachedDelta[location] = bestDelta;
+                cachedPosition[location] = bestPosition;
+            }
+            return cachedDelta[location];
+        }
+
+        /**
+         * Insert at the cached cheapest position, then re-order the route
+         */
+        void insert(DeliveryMap map, T item, int location) {
+            insertionDelta(map, location);
+            int p = cachedPosition[location];
+            System.arraycopy(stops, p, stops, p + 1, items.size() - p);
+            stops[p] = location;
+            items.add(p, item);
+            reorder(map);
+            Arrays.fill(cachedPosition, UNKNOWN);
+        }
+
+        private void reorder(DeliveryMap map) {
+            int n = items.size();
+            if (n < 3) {
+                return;
+            }
+            int[] current = Arrays.copyOf(stops, n);
+            int[] identity = new int[n];
+            for (int i = 0; i < n; i++) {
+                identity[i] = i;
+            }
+            int[] order = RoutePlanner.plan(map, DeliveryMap.DEPOT, current);
+            if (RoutePlanner.tripSeconds(map, DeliveryMap.DEPOT, current, order)
+                    >= RoutePlanner.tripSeconds(map, DeliveryMap.DEPOT, current, identity)) {
+                return;
+            }
+            List<T> previous = new ArrayList<>(items);
+            for (int i = 0; i < n; i++) {
+                stops[i] = current[order[i]];
+                items.set(i, previous.get(order[i]));
+            }
+        }
+
+        int tripSeconds(DeliveryMap map) {
+            int seconds = 0;
+            int at = DeliveryMap.DEPOT;
+            for (int i = 0; i < items.size(); i++) {
+                seconds += map.travelSeconds(at, stops[i]);
+                at = stops[i];
+            }
+            return seconds + map.travelSeconds(at, DeliveryMap.DEPOT);
+        }
+    }
+
+    RoutePlan(DeliveryMap map) {
+        this.map = map;
+    }
+
+    boolean hasVehicle(String agent) {
+        return routes.containsKey(agent);
+    }
+
+    /**
+     * Start an empty route for an agent at the depot
+     *
+     * @param capacity - Packages the agent can take on its next trip
+     */
+    void addVehicle(String agent, int capacity) {
+        routes.put(agent, new Route<>(capacity, map.size()));
+    }
+
+    /**
+     * Take the agent out of the plan
+     *
+     * @return its route in visiting order (empty if it had none)
+     */
+    List<T> removeVehicle(String agent) {
+        Route<T> route = routes.remove(agent);
+        return route == null ? List.of() : route.items;
+    }
+
+    /**
+     * Agents in the plan; a copy, so the caller can remove while iterating
+     */
+    List<String> agents() {
+        return new ArrayList<>(routes.keySet());
+    }
+
+    List<T> route(String agent) {
+        Route<T> route = routes.get(agent);
+        return route == null ? List.of() : List.copyOf(route.items);
+    }
+
+    boolean isFull(String agent) {
+        Route<T> route = routes.get(agent);
+        return route != null && route.isFull();
+    }
+
+    /**
+     * Travel time of the agent's planned trip, depot to depot
+     */
+    int tripSeconds(String agent) {
+        Route<T> route = routes.get(agent);
+        return route == null ? 0 : route.tripSeconds(map);
+    }
+
+    /**
+     * Cheapest insertion over every route with a free slot
+     *
+     * @return the agent whose route took the item, or null if every route is full
+     */
+    String insert(T item, int location) {
+        String bestAgent = null;
+        int bestDelta = Integer.MAX_VALUE;
+        for (Map.Entry<String, Route<T>> entry : routes.entrySet()) {
+            Route<T> route = entry.getValue();
+            if (route.isFull()) {
+                continue;
+            }
+            int delta = route.insertionDelta(map, location);
+            if (delta < bestDelta) {
+                bestDelta = delta;
+                bestAgent = entry.getKey();
+            }
+        }
+        if (bestAgent != null) {
+            routes.get(bestAgent).insert(map, item, location);
+        }
+        return bestAgent;
+    }
+}
@@ -0,0 +1,157 @@
+package testCase_3;
+
+/**
+ * RoutePlanner.java
+ *
+ * Orders a carrier's stops into a short trip over the DeliveryMap matrix.
+ *
+ * - The trip leaves from a fixed start node (the depot, or the stop the
+ *   agent is already driving to) and always ends back at the depot
+ * - Construction: nearest neighbour from the start
+ * - Improvement until no move shortens the trip (first improvement):
+ *   - 2-opt: reverse a run of stops
+ *   - Or-opt: move a run of 1-3 consecutive stops elsewhere in the trip
+ *
+ * Costs are the whole-second travel times the agents drive, so a planned
+ * trip is exactly what the delivery countdown will take. Stateless, so
+ * every agent thread can call it.
+ */
+public final class RoutePlanner {
+
+    private static final int MAX_OR_OPT_SEGMENT = 3;
+
+    private RoutePlanner() {
+    }
+
+    /**
+     * @param start - Node the trip leaves from
+     * @param stops - Locations to visit (the same location may appear twice)
+     * @return visiting order, as indexes into stops
+     */
+    public static int[] plan(DeliveryMap map, int start, int[] stops) {
+        int n = stops.length;
+        // path[0] = start, path[1..n] = stops in visiting order, path[n + 1] = depot
+        int[] path = new int[n + 2];
+        int[] order = new int[n];
+
+        nearestNeighbour(map, start, stops, path, order);
+        while (twoOpt(map, path, order) || orOpt(map, path, order)) {
+            // Each applied move strictly shortens the trip, so this terminates
+        }
+        return order;
+    }
+
+    /**
+     * Seconds from start through the stops in the given order and back to the depot
+     */
+    public static int tripSeconds(DeliveryMap map, int start, int[] stops, int[] order) {
+        int seconds = 0;
+        int at = start;
+        for (int index : order) {
+            seconds += map.travelSeconds(at, stops[index]);
+            at = stops[index];
+        }
+        return seconds + map.travelSeconds(at, DeliveryMap.DEPOT);
+    }
+
+    private static void nearestNeighbour(DeliveryMap map, int start, int[] stops, int[] path, int[] order) {
+        int n = stops.length;
+        boolean[] visited = new boolean[n];
+        path[0] = start;
+        path[n + 1] = DeliveryMap.DEPOT;
+
+        int at = start;
+        for (int position = 0; position < n; position++) {
+            int nearest = -1;
+            for (int i = 0; i < n; i++) {
+                if (!visited[i] && (nearest < 0
+                        || map.travelSeconds(at, stops[i]) < map.travelSeconds(at, stops[nearest]))) {
+                    nearest = i;
+                }
+            }
+            visited[nearest] = true;
+            order[position] = nearest;
+            path[position + 1] = stops[nearest];
+            at = stops[nearest];
+        }
+    }
+
+    /**
+     * Reverse path[i..j] (1 <= i < j <= n); the start and the final depot stay put
+     */
+    private static boolean twoOpt(DeliveryMap map, int[] path, int[] order) {
+        int n = order.length;
+        for (int i = 1; i < n; i++) {
+            for (int j = i + 1; j <= n; j++) {
+                int delta = map.travelSeconds(path[i - 1], path[j]) + map.travelSeconds(path[i], path[j + 1])
+                        - map.travelSeconds(path[i - 1], path[i]) - map.travelSeconds(path[j], path[j + 1]);
+                if (delta < 0) {
+                    reverse(path, i, j);
+                    reverse(order, i - 1, j - 1);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Move path[i..e] between path[p] and path[p + 1], p outside the run
+     */
+    private static boolean orOpt(DeliveryMap map, int[] path, int[] order) {
+        int n = order.length;
+        for (int length = 1; length <= Math.min(MAX_OR_OPT_SEGMENT, n - 1); length++) {
+            for (int i = 1; i + length - 1 <= n; i++) {
+                int e = i + length - 1;
+                int removed = map.travelSeconds(path[i - 1], path[i]) + map.travelSeconds(path[e], path[e + 1])
+                        - map.travelSeconds(path[i - 1], path[e + 1]);
+                for (int p = 0; p <= n; p++) {
+                    if (p >= i - 1 && p <= e) {
+                        continue;
+                    }
+                    int added = map.travelSeconds(path[p], path[i]) + map.travelSeconds(path[e], path[p + 1])
+                            - map.travelSeconds(path[p], path[p + 1]);
+                    if (added < removed) {
+                        moveSegment(path, order, i, e, p);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void moveSegment(int[] path, int[] order, int i, int e, int p) {
+        int n = order.length;
+        int[] newPath = new int[path.length];
+        int[] newOrder = new int[n];
+        int length = e - i + 1;
+        int w = 0;
+        for (int k = 0; k <= n + 1; k++) {
+            if (k >= i && k <= e) {
+                continue;
+            }
+            newPath[w] = path[k];
+            if (k >= 1 && k <= n) {
+                newOrder[w - 1] = order[k - 1];
+            }
+            w++;
+            if (k == p) {
+                for (int s = 0; s < length; s++, w++) {
+                    newPath[w] = path[i + s];
+                    newOrder[w - 1] = order[i + s - 1];
+                }
+            }
+        }
+        System.arraycopy(newPath, 0, path, 0, path.length);
+        System.arraycopy(newOrder, 0, order, 0, n);
+    }
+
+    private static void reverse(int[] values, int from, int to) {
+        while (from < to) {
+            int tmp = values[from];
+            values[from++] = values[to];
+            values[to--] = tmp;
+        }
+    }
+}
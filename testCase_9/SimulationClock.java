@@ -0,0 +1,331 @@
+package testCase_3;
+
+import jade.core.Agent;
+import jade.core.behaviours.OneShotBehaviour;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SimulationClock.java
+ *
+ * Pluggable time source for deliveries, returns, auctions and package regeneration.
+ *
+ * Modes:
+ * - REAL_TIME: events fire on wall-clock time (demo mode, the GUI ticks every second)
+ * - DISCRETE_EVENT: events wait in a priority queue and the clock jumps straight
+ *   to the next one as soon as the agents have gone quiet
+ *
+ * The mode is selected with -Dvrp.clock=realtime|discrete (default: realtime).
+ * All times are simulated milliseconds since the clock was created.
+ */
+public abstract class SimulationClock {
+
+    /**
+     * Handle returned by schedule() so a pending event can be cancelled
+     */
+    public interface Handle {
+        void cancel();
+    }
+
+    private static SimulationClock instance;
+
+    /**
+     * Shared clock used by every agent in this JVM
+     */
+    public static synchronized SimulationClock get() {
+        if (instance == null) {
+            String mode = System.getProperty("vrp.clock", "realtime");
+            instance = mode.equalsIgnoreCase("discrete") ? new DiscreteEvent() : new RealTime();
+        }
+        return instance;
+    }
+
+    /**
+     * Replace the shared clock (e.g. to drive a DiscreteEvent clock by hand)
+     */
+    public static synchronized void install(SimulationClock clock) {
+        if (instance != null && instance != clock) {
+            instance.shutdown();
+        }
+        instance = clock;
+    }
+
+    /**
+     * @return current simulated time in milliseconds
+     */
+    public abstract long now();
+
+    /**
+     * Run task once after delayMs of simulated time
+     */
+    public abstract Handle schedule(long delayMs, Runnable task);
+
+    /**
+     * Run task on the agent's own thread after delayMs of simulated time.
+     * The clock thread only posts a behaviour, so agent state is never touched
+     * off the agent thread; cancel() also drops a task already posted.
+     */
+    public Handle schedule(Agent agent, long delayMs, Runnable task) {
+        AgentTask agentTask = new AgentTask(agent, task);
+        agentTask.timer = schedule(delayMs, agentTask::post);
+        return agentTask;
+    }
+
+    private final class AgentTask implements Handle {
+        private final Agent agent;
+        private final Runnable task;
+        private volatile boolean cancelled;
+        private Handle timer;
+
+        AgentTask(Agent agent, Runnable task) {
+            this.agent = agent;
+            this.task = task;
+        }
+
+        void post() {
+            // The agent has work queued: the discrete-event clock must not jump yet
+            markActivity();
+            agent.addBehaviour(new OneShotBehaviour(agent) {
+                @Override
+                public void action() {
+                    if (!cancelled) {
+                        task.run();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            timer.cancel();
+        }
+    }
+
+    /**
+     * @return true if simulated time follows the wall clock
+     */
+    public abstract boolean isRealTime();
+
+    /**
+     * Tell the clock the agents are still busy (messages in flight).
+     * The discrete-event clock will not jump ahead until activity settles.
+     */
+    public void markActivity() {
+    }
+
+    public abstract void shutdown();
+
+    // ============================================================
+    // REAL-TIME MODE
+    // ============================================================
+
+    /**
+     * Wall-clock mode for demos. Events run on a single daemon thread,
+     * so callbacks are serialized just like the old per-agent Swing Timers.
+     */
+    public static class RealTime extends SimulationClock {
+        private final long origin = System.currentTimeMillis();
+        private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sim-clock");
+            t.setDaemon(true);
+            return t;
+        });
+
+        @Override
+        public long now() {
+            return System.currentTimeMillis() - origin;
+        }
+
+        @Override
+        public Handle schedule(long delayMs, Runnable task) {
+            ScheduledFuture<?> future = scheduler.schedule(guard(task), Math.max(0, delayMs), TimeUnit.MILLISECONDS);
+            return () -> future.cancel(false);
+        }
+
+        @Override
+        public boolean isRealTime() {
+            return true;
+        }
+
+        @Override
+        public void shutdown() {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // ============================================================
+    // DISCRETE-EVENT MODE
+    // ============================================================
+
+    /**
+     * Discrete-event mode for replays and capacity planning.
+     *
+     * Pending events are ordered by (time, sequence) so runs are deterministic.
+     * The driver thread waits until no activity has been reported for
+     * SETTLE_MS of wall time, then jumps simulated time to the earliest event.
+     * step() and runUntil() can be used instead of the driver thread.
+     */
+    public static class DiscreteEvent extends SimulationClock {
+        private static final long SETTLE_MS = 5;
+
+        private final PriorityQueue<Event> queue = new PriorityQueue<>();
+        private long currentTime = 0;
+        private long sequence = 0;
+        private long lastActivity = System.nanoTime();
+        private boolean running = true;
+
+        private class Event implements Comparable<Event>, Handle {
+            final long time;
+            final long seq;
+            final Runnable task;
+
+            Event(long time, long seq, Runnable task) {
+                this.time = time;
+                this.seq = seq;
+                this.task = task;
+            }
+
+            @Override
+            public void cancel() {
+                synchronized (DiscreteEvent.this) {
+                    queue.remove(this);
+                }
+            }
+
+            @Override
+            public int compareTo(Event other) {
+                if (this.time != other.time) {
+                    return Long.compare(this.time, other.time);
+                }
+                return Long.compare(this.seq, other.seq);
+            }
+        }
+
+        public DiscreteEvent() {
+            this(true);
+        }
+
+        /**
+         * @param autoDrive - start a daemon thread that advances the clock by itself
+         */
+        public DiscreteEvent(boolean autoDrive) {
+            if (autoDrive) {
+                Thread driver = new Thread(this::drive, "sim-clock-des");
+                driver.setDaemon(true);
+                driver.start();
+            }
+        }
+
+        @Override
+        public synchronized long now() {
+            return currentTime;
+        }
+
+        @Override
+        public synchronized Handle schedule(long delayMs, Runnable task) {
+            Event event = new Event(currentTime + Math.max(0, delayMs), sequence++, guard(task));
+            queue.add(event);
+            lastActivity = System.nanoTime();
+            notifyAll();
+            return event;
+        }
+
+        @Override
+        public boolean isRealTime() {
+            return false;
+        }
+
+        @Override
+        public synchronized void markActivity() {
+            lastActivity = System.nanoTime();
+        }
+
+        @Override
+        public synchronized void shutdown() {
+            running = false;
+            queue.clear();
+            notifyAll();
+        }
+
+        /**
+         * @return number of events still waiting
+         */
+        public synchronized int pending() {
+            return queue.size();
+        }
+
+        /**
+         * Jump to the next event and run it on the calling thread
+         *
+         * @return false if there was nothing to run
+         */
+        public boolean step() {
+            Event next;
+            synchronized (this) {
+                next = queue.poll();
+                if (next == null) {
+                    return false;
+                }
+                currentTime = next.time;
+            }
+            next.task.run();
+            return true;
+        }
+
+        /**
+         * Run every event due up to (and including) the given simulated time
+         */
+        public void runUntil(long time) {
+            while (true) {
+                synchronized (this) {
+                    Event head = queue.peek();
+                    if (head == null || head.time > time) {
+                        currentTime = Math.max(currentTime, time);
+                        return;
+                    }
+                }
+                step();
+            }
+        }
+
+        private void drive() {
+            while (true) {
+                synchronized (this) {
+                    try {
+                        while (running && queue.isEmpty()) {
+                            wait();
+                        }
+                        if (!running) {
+                            return;
+                        }
+                        long quietFor = (System.nanoTime() - lastActivity) / 1_000_000;
+                        if (quietFor < SETTLE_MS) {
+                            wait(SETTLE_MS - quietFor);
+                            continue;
+                        }
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                step();
+            }
+        }
+    }
+
+    private static Runnable guard(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                StackTraceElement[] trace = e.getStackTrace();
+                EventLog.warn("SimulationClock", "clock.task_failed", "exception", e,
+                        "at", trace.length > 0 ? trace[0] : "");
+            }
+        };
+    }
+}
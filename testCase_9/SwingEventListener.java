@@ -0,0 +1,109 @@
+package testCase_3;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SwingEventListener.java
+ *
+ * Forwards agent events to DeliveryGUI.
+ *
+ * The GUI is created on the EDT by the constructor. Every event is posted
+ * with invokeLater, so it is always queued behind the GUI creation and no
+ * startup sleep is needed.
+ *
+ * Log lines and agent updates do not get an EDT task each:
+ * - log lines go into a LogRingBuffer
+ * - agent updates overwrite the agent's entry in an AgentSnapshotStore
+ * A Swing Timer then appends every pending line and renders only the agents
+ * whose snapshot version changed, once per frame.
+ */
+public class SwingEventListener implements DeliveryEventListener {
+
+    private static final int LOG_BUFFER_SIZE = 8192;
+    private static final int FRAME_MS = 33;  // ~30 frames per second
+
+    private final LogRingBuffer<String> logBuffer = new LogRingBuffer<>(LOG_BUFFER_SIZE);
+    private final AgentSnapshotStore agentSnapshots = new AgentSnapshotStore();
+    // Agent -> snapshot version on screen; EDT only
+    private final Map<String, Long> renderedVersions = new HashMap<>();
+    private DeliveryGUI gui;
+
+    public SwingEventListener() {
+        SwingUtilities.invokeLater(() -> {
+            gui = new DeliveryGUI();
+            new Timer(FRAME_MS, e -> {
+                drainLog();
+                drainAgentSnapshots();
+            }).start();
+        });
+    }
+
+    @Override
+    public void onMessage(String message) {
+        logBuffer.offer(message);
+    }
+
+    /**
+     * Runs on the EDT: one append for every line logged since the last frame
+     */
+    private void drainLog() {
+        List<String> lines = new ArrayList<>();
+        logBuffer.drainTo(lines);
+
+        long dropped = logBuffer.takeDropped();
+        if (dropped > 0) {
+            lines.add("[LOG] " + dropped + " message(s) dropped - log buffer full");
+        }
+
+        if (!lines.isEmpty()) {
+            gui.addMessages(lines);
+        }
+    }
+
+    /**
+     * Runs on the EDT: agents changed since the last frame, in one table update
+     */
+    private void drainAgentSnapshots() {
+        List<AgentSnapshotStore.Snapshot> changed = agentSnapshots.changedSince(renderedVersions);
+        if (!changed.isEmpty()) {
+            gui.updateAgents(changed);
+        }
+    }
+
+    @Override
+    public void onAgentRegistered(String displayName) {
+        SwingUtilities.invokeLater(() -> gui.addAgent(displayName));
+    }
+
+    @Override
+    public void onPackageCreated(String packageName, int deliveryTime) {
+        SwingUtilities.invokeLater(() -> gui.addAvailablePackage(packageName, deliveryTime));
+    }
+
+    @Override
+    public void onPackageAssigned(String packageName) {
+        SwingUtilities.invokeLater(() -> gui.removeAvailablePackage(packageName));
+    }
+
+    @Override
+    public void onPackagePickedUp(String packageName, String agentName) {
+        SwingUtilities.invokeLater(() -> gui.addDeliveringPackage(packageName, agentName));
+    }
+
+    @Override
+    public void onPackageDelivered(String packageName) {
+        SwingUtilities.invokeLater(() -> gui.removeDeliveringPackage(packageName));
+    }
+
+    @Override
+    public void onAgentUpdate(String displayName, String state, String packages,
+                              int load, int capacity, int timeToMaster, int deliveryTime) {
+        // No EDT work here; the next frame picks up the latest snapshot
+        agentSnapshots.publish(displayName, state, packages, load, capacity, timeToMaster, deliveryTime);
+    }
+}
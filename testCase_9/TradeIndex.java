@@ -0,0 +1,235 @@
+package testCase_3;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * TradeIndex.java
+ *
+ * Packages in delivery, indexed for trade matching.
+ *
+ * Kept up to date on pickup, trade handover and delivery, so a trade query
+ * never rescans every package in flight:
+ * - package -> carrier
+ * - carrier -> priority and carried packages (its load)
+ * - priority -> carriers, load -> carriers (sorted buckets)
+ *
+ * A carrier matches a requester when the requester's priority is at least
+ * MIN_PRIORITY_DIFF higher, or the carrier has at least MIN_WORKLOAD_DIFF
+ * more packages. Matching walks only the buckets that can match.
+ *
+ * Matches are ranked by expected gain:
+ *   value = remainingSeconds * (PRIORITY_GAIN * priorityDiff + LOAD_GAIN * workloadDiff)
+ *   expectedGain = value * (1 - P(carrier refuses))
+ * P(refuse) comes from the carrier's trade history, Laplace-smoothed so an
+ * unknown carrier starts at 0.5. Packages about to be delivered score ~0.
+ *
+ * Not thread-safe; MasterAgent uses it from its message handler only.
+ */
+public class TradeIndex {
+
+    public static final int MIN_PRIORITY_DIFF = 2;
+    public static final int MIN_WORKLOAD_DIFF = 2;
+
+    private static final int PRIORITY_GAIN = 2;
+    private static final int LOAD_GAIN = 1;
+
+    /**
+     * One tradeable package, why it matched and what taking it over is worth
+     */
+    public record Opportunity(String agentName, String packageName, int priorityDiff, int workloadDiff,
+                              int remainingSeconds, double expectedGain) {
+    }
+
+    private static class Carrier {
+        final int priority;
+        final Set<String> packages = new LinkedHashSet<>();
+
+        Carrier(int priority) {
+            this.priority = priority;
+        }
+    }
+
+    private final Map<String, String> carrierOfPackage = new HashMap<>();
+    // Simulated time (ms) at which each package is expected to be delivered
+    private final Map<String, Long> expectedDoneAt = new HashMap<>();
+    // Carrier -> {accepted, refused} trade requests; kept after its packages are gone
+    private final Map<String, int[]> tradeHistory = new HashMap<>();
+    private final Map<String, Carrier> carriers = new HashMap<>();
+    private final NavigableMap<Integer, Set<String>> byPriority = new TreeMap<>();
+    private final NavigableMap<Integer, Set<String>> byLoad = new TreeMap<>();
+
+    // ============================================================
+    // UPDATES
+    // ============================================================
+
+    /**
+     * Record a pickup
+     *
+     * @param doneAt - Simulated time (ms) the delivery should complete
+     */
+    public void add(String packageName, String agentName, int agentPriority, long doneAt) {
+        move(packageName, agentName, agentPriority);
+        expectedDoneAt.put(packageName, doneAt);
+    }
+
+    /**
+     * Record a trade handover; the expected delivery time is unchanged
+     */
+    public void move(String packageName, String agentName, int agentPriority) {
+        Long doneAt = expectedDoneAt.get(packageName);
+        remove(packageName);
+        if (doneAt != null) {
+            expectedDoneAt.put(packageName, doneAt);
+        }
+
+        Carrier carrier = carriers.get(agentName);
+        if (carrier == null) {
+            carrier = new Carrier(agentPriority);
+            carriers.put(agentName, carrier);
+            byPriority.computeIfAbsent(agentPriority, p -> new LinkedHashSet<>()).add(agentName);
+        } else {
+            unbucket(byLoad, carrier.packages.size(), agentName);
+        }
+
+        carrier.packages.add(packageName);
+        byLoad.computeIfAbsent(carrier.packages.size(), l -> new LinkedHashSet<>()).add(agentName);
+        carrierOfPackage.put(packageName, agentName);
+    }
+
+    /**
+     * @return the previous carrier, or null if the package was not in delivery
+     */
+    public String remove(String packageName) {
+        expectedDoneAt.remove(packageName);
+        String agentName = carrierOfPackage.remove(packageName);
+        if (agentName == null) {
+            return null;
+        }
+
+        Carrier carrier = carriers.get(agentName);
+        unbucket(byLoad, carrier.packages.size(), agentName);
+        carrier.packages.remove(packageName);
+
+        if (carrier.packages.isEmpty()) {
+            carriers.remove(agentName);
+            unbucket(byPriority, carrier.priority, agentName);
+        } else {
+            byLoad.computeIfAbsent(carrier.packages.size(), l -> new LinkedHashSet<>()).add(agentName);
+        }
+        return agentName;
+    }
+
+    private static void unbucket(NavigableMap<Integer, Set<String>> buckets, int key, String agentName) {
+        Set<String> bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.remove(agentName);
+            if (bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    public void recordTradeAccepted(String carrier) {
+        tradeHistory.computeIfAbsent(carrier, c -> new int[2])[0]++;
+    }
+
+    public void recordTradeRefused(String carrier) {
+        tradeHistory.computeIfAbsent(carrier, c -> new int[2])[1]++;
+    }
+
+    // ============================================================
+    // QUERIES
+    // ============================================================
+
+    public String carrierOf(String packageName) {
+        return carrierOfPackage.get(packageName);
+    }
+
+    public List<String> packagesOf(String agentName) {
+        Carrier carrier = carriers.get(agentName);
+        return carrier == null ? new ArrayList<>() : new ArrayList<>(carrier.packages);
+    }
+
+    public int loadOf(String agentName) {
+        Carrier carrier = carriers.get(agentName);
+        return carrier == null ? 0 : carrier.packages.size();
+    }
+
+    public int size() {
+        return carrierOfPackage.size();
+    }
+
+    /**
+     * Estimated probability that the carrier refuses the next trade request
+     */
+    public double refusalProbability(String carrier) {
+        int[] history = tradeHistory.get(carrier);
+        if (history == null) {
+            return 0.5;
+        }
+        return (history[1] + 1.0) / (history[0] + history[1] + 2.0);
+    }
+
+    /**
+     * The k opportunities with the highest expected gain, best first.
+     * Opportunities worth nothing (package about to arrive) are dropped.
+     */
+    public List<Opportunity> rankOpportunities(String requester, int requesterPriority, int requesterLoad,
+                                               long now, int k) {
+        List<Opportunity> ranked = new ArrayList<>();
+        for (Opportunity match : findOpportunities(requester, requesterPriority, requesterLoad, now)) {
+            if (match.expectedGain() > 0) {
+                ranked.add(match);
+            }
+        }
+        ranked.sort(Comparator.comparingDouble(Opportunity::expectedGain).reversed());
+        return ranked.size() > k ? new ArrayList<>(ranked.subList(0, k)) : ranked;
+    }
+
+    /**
+     * Packages the requester may ask to take over, in bucket order:
+     * lowest-priority carriers first, then the most loaded carriers.
+     */
+    public List<Opportunity> findOpportunities(String requester, int requesterPriority, int requesterLoad, long now) {
+        Set<String> matched = new LinkedHashSet<>();
+
+        for (Set<String> bucket : byPriority.headMap(requesterPriority - MIN_PRIORITY_DIFF, true).values()) {
+            matched.addAll(bucket);
+        }
+        for (Set<String> bucket : byLoad.tailMap(requesterLoad + MIN_WORKLOAD_DIFF, true).descendingMap().values()) {
+            matched.addAll(bucket);
+        }
+        matched.remove(requester);
+
+        List<Opportunity> opportunities = new ArrayList<>();
+        for (String agentName : matched) {
+            Carrier carrier = carriers.get(agentName);
+            int priorityDiff = requesterPriority - carrier.priority;
+            int workloadDiff = carrier.packages.size() - requesterLoad;
+            int weight = PRIORITY_GAIN * Math.max(0, priorityDiff) + LOAD_GAIN * Math.max(0, workloadDiff);
+            double acceptProbability = 1.0 - refusalProbability(agentName);
+
+            for (String packageName : carrier.packages) {
+                Long doneAt = expectedDoneAt.get(packageName);
+                int remainingSeconds = doneAt == null ? 0 : (int) Math.max(0, (doneAt - now) / 1000);
+                double expectedGain = remainingSeconds * weight * acceptProbability;
+                opportunities.add(new Opportunity(agentName, packageName, priorityDiff, workloadDiff,
+                        remainingSeconds, expectedGain));
+            }
+        }
+        return opportunities;
+    }
+
+    @Override
+    public String toString() {
+        return carrierOfPackage.toString();
+    }
+}
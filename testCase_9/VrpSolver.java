@@ -0,0 +1,495 @@
+package testCase_3;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * VrpSolver.java
+ *
+ * Centralized routing for the Master's solver dispatch mode
+ * (-Dvrp.auction=solver): assigns queued packages to the agents waiting
+ * at the depot and orders each agent's stops.
+ *
+ * - Customers are package destinations (DeliveryMap nodes), vehicles are the
+ *   waiting agents and their capacity is the number of free slots
+ * - Construction: Clarke-Wright savings, merging routes end to end while the
+ *   merged route still fits the largest vehicle; routes are then given to
+ *   vehicles best fit first, and what does not fit is inserted wherever a
+ *   slot is left
+ * - Local search, first improvement, until no move helps or the time budget
+ *   runs out:
+ *   - insert: an unassigned customer into the cheapest feasible position
+ *   - relocate: a customer into another route
+ *   - exchange: two customers of different routes swap places
+ *   - 2-opt*: two routes swap their tails
+ *   - intra-route: each route re-ordered with RoutePlanner
+ *
+ * Objective: total travel seconds (depot to depot) plus UNASSIGNED_PENALTY
+ * per customer left out, so serving packages always comes first.
+ *
+ * Multi-start: workers on a dedicated ForkJoinPool run independent starts
+ * (construction + local search) until the starts are used up or the time
+ * budget ends. Start 0 is the plain savings construction; the others
+ * perturb every saving by up to SAVINGS_NOISE, which leads the search to
+ * other local optima. Each worker offers its result to a shared
+ * BestSolution, a compare-and-set on cost, and solve() returns the cheapest.
+ *
+ * Configuration:
+ *   -Dvrp.solver.threads=N     (pool size, default: available processors)
+ *   -Dvrp.solver.starts=64     (starts per solve)
+ */
+public final class VrpSolver {
+
+    static final int UNASSIGNED_PENALTY = 100_000;
+
+    private static final int THREADS =
+            Integer.getInteger("vrp.solver.threads", Runtime.getRuntime().availableProcessors());
+    private static final int STARTS = Integer.getInteger("vrp.solver.starts", 64);
+    // Per mille: a randomized start scales each saving by 1000 +/- SAVINGS_NOISE
+    private static final int SAVINGS_NOISE = 200;
+
+    // Worker threads are daemons, so an idle pool never keeps the JVM alive
+    private static final ForkJoinPool POOL = new ForkJoinPool(THREADS);
+
+    /**
+     * @param routes - Per vehicle, customer indexes in visiting order
+     * @param unassigned - Customers no vehicle could take
+     * @param travelSeconds - Total travel time of all routes, depot to depot
+     */
+    public record Solution(int[][] routes, int[] unassigned, int travelSeconds) {
+
+        public int cost() {
+            return travelSeconds + unassigned.length * UNASSIGNED_PENALTY;
+        }
+    }
+
+    private VrpSolver() {
+    }
+
+    /**
+     * @param locations - Destination node of each customer
+     * @param capacities - Free slots of each vehicle
+     * @param budgetMs - Wall-clock limit; start 0 always completes its construction
+     */
+    public static Solution solve(DeliveryMap map, int[] locations, int[] capacities, long budgetMs) {
+        long deadline = System.nanoTime() + budgetMs * 1_000_000L;
+        // With fewer than 3 customers every start builds the same routes
+        int starts = locations.length < 3 ? 1 : STARTS;
+        AtomicInteger nextStart = new AtomicInteger();
+        BestSolution best = new BestSolution();
+
+        List<ForkJoinTask<?>> workers = new ArrayList<>();
+        for (int w = 0; w < Math.min(THREADS, starts); w++) {
+            workers.add(POOL.submit(() -> {
+                int start;
+                while ((start = nextStart.getAndIncrement()) < starts) {
+                    if (start > 0 && System.nanoTime() >= deadline) {
+                        return;
+                    }
+                    Search search = new Search(map, locations, capacities);
+                    search.clarkeWright(start == 0 ? null : new SplittableRandom(start));
+                    search.improve(deadline);
+                    best.offer(search.toSolution());
+                }
+            }));
+        }
+        for (ForkJoinTask<?> worker : workers) {
+            worker.join();
+        }
+        return best.get();
+    }
+
+    /**
+     * Cheapest solution offered so far, shared by the workers without locking
+     */
+    static final class BestSolution {
+        private final AtomicReference<Solution> best = new AtomicReference<>();
+
+        /**
+         * @return true if the candidate is strictly cheaper and became the best
+         */
+        boolean offer(Solution candidate) {
+            while (true) {
+                Solution current = best.get();
+                if (current != null && current.cost() <= candidate.cost()) {
+                    return false;
+                }
+                if (best.compareAndSet(current, candidate)) {
+                    return true;
+                }
+            }
+        }
+
+        Solution get() {
+            return best.get();
+        }
+    }
+
+    /**
+     * Mutable state of one solve: routes[v][0..length[v]) are customer
+     * indexes, unassigned customers are kept in a list
+     */
+    static final class Search {
+        private final DeliveryMap map;
+        private final int[] locations;
+        private final int[] capacities;
+        private final int[][] routes;
+        private final int[] length;
+        private final List<Integer> unassigned = new ArrayList<>();
+
+        Search(DeliveryMap map, int[] locations, int[] capacities) {
+            this.map = map;
+            this.locations = locations;
+            this.capacities = capacities;
+            this.routes = new int[capacities.length][];
+            this.length = new int[capacities.length];
+            for (int v = 0; v < capacities.length; v++) {
+                routes[v] = new int[capacities[v]];
+            }
+        }
+
+        // ============================================================
+        // CONSTRUCTION
+        // ============================================================
+
+        /**
+         * @param random - Perturbs the savings, or null for the plain construction
+         */
+        void clarkeWright(SplittableRandom random) {
+            int n = locations.length;
+            int maxCapacity = 0;
+            for (int capacity : capacities) {
+                maxCapacity = Math.max(maxCapacity, capacity);
+            }
+
+            // One route per customer to start with
+            List<Deque<Integer>> built = new ArrayList<>(n);
+            int[] routeOf = new int[n];
+            for (int c = 0; c < n; c++) {
+                Deque<Integer> route = new ArrayDeque<>();
+                route.add(c);
+                built.add(route);
+                routeOf[c] = c;
+            }
+
+            // Savings of serving i and j in one trip (per mille of a second),
+            // packed as saving << 32 | i << 16 | j
+            long[] savings = new long[n * (n - 1) / 2];
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    long scale = random == null ? 1000 : 1000 - SAVINGS_NOISE + random.nextInt(2 * SAVINGS_NOISE + 1);
+                    long saving = (depot(i) + depot(j) - travel(i, j)) * scale;
+                    if (saving > 0) {
+                        savings[count++] = saving << 32 | (long) i << 16 | j;
+                    }
+                }
+            }
+            Arrays.sort(savings, 0, count);
+
+            // Largest saving first
+            for (int s = count - 1; s >= 0; s--) {
+                long packed = savings[s];
+                int i = (int) (packed >>> 16 & 0xFFFF);
+                int j = (int) (packed & 0xFFFF);
+                Deque<Integer> a = built.get(routeOf[i]);
+                Deque<Integer> b = built.get(routeOf[j]);
+                if (a == b || a.size() + b.size() > maxCapacity || !isEnd(a, i) || !isEnd(b, j)) {
+                    continue;
+                }
+                // Orient so that i ends a and j starts b
+                if (a.peekLast() != i) {
+                    a = reversed(a);
+                }
+                if (b.peekFirst() != j) {
+                    b = reversed(b);
+                }
+                int merged = routeOf[i];
+                built.set(routeOf[j], new ArrayDeque<>());
+                a.addAll(b);
+                built.set(merged, a);
+                for (int c : a) {
+                    routeOf[c] = merged;
+                }
+            }
+
+            assignToVehicles(built);
+            // Repair: fill the remaining slots whatever the time budget
+            while (insertUnassigned()) {
+                // Each call places one customer
+            }
+        }
+
+        /**
+         * Largest routes first, each to the smallest free vehicle it fits
+         */
+        private void assignToVehicles(List<Deque<Integer>> built) {
+            List<Deque<Integer>> pending = new ArrayList<>();
+            for (Deque<Integer> route : built) {
+                if (!route.isEmpty()) {
+                    pending.add(route);
+                }
+            }
+            pending.sort((a, b) -> Integer.compare(b.size(), a.size()));
+
+            boolean[] used = new boolean[capacities.length];
+            for (Deque<Integer> route : pending) {
+                int vehicle = -1;
+                for (int v = 0; v < capacities.length; v++) {
+                    if (!used[v] && capacities[v] >= route.size()
+                            && (vehicle < 0 || capacities[v] < capacities[vehicle])) {
+                        vehicle = v;
+                    }
+                }
+                if (vehicle < 0) {
+                    unassigned.addAll(route);
+                    continue;
+                }
+                used[vehicle] = true;
+                for (int c : route) {
+                    routes[vehicle][length[vehicle]++] = c;
+                }
+            }
+        }
+
+        private static boolean isEnd(Deque<Integer> route, int customer) {
+            return route.peekFirst() == customer || route.peekLast() == customer;
+        }
+
+        private static Deque<Integer> reversed(Deque<Integer> route) {
+            Deque<Integer> reversed = new ArrayDeque<>(route.size());
+            for (int c : route) {
+                reversed.addFirst(c);
+            }
+            return reversed;
+        }
+
+        // ============================================================
+        // LOCAL SEARCH
+        // ============================================================
+
+        void improve(long deadline) {
+            boolean improved = true;
+            while (improved && System.nanoTime() < deadline) {
+                improved = insertUnassigned() || relocate() || exchange() || twoOptStar() || reorderRoutes();
+            }
+        }
+
+        private boolean insertUnassigned() {
+            for (int u = 0; u < unassigned.size(); u++) {
+                int c = unassigned.get(u);
+                int bestVehicle = -1;
+                int bestPosition = -1;
+                int bestDelta = Integer.MAX_VALUE;
+                for (int v = 0; v < routes.length; v++) {
+                    if (length[v] >= capacities[v]) {
+                        continue;
+                    }
+                    for (int p = 0; p <= length[v]; p++) {
+                        int delta = insertionDelta(v, p, c);
+                        if (delta < bestDelta) {
+                            bestDelta = delta;
+                            bestVehicle = v;
+                            bestPosition = p;
+                        }
+                    }
+                }
+                if (bestVehicle >= 0) {
+                    unassigned.remove(u);
+                    insert(bestVehicle, bestPosition, c);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean relocate() {
+            for (int a = 0; a < routes.length; a++) {
+                for (int i = 0; i < length[a]; i++) {
+                    int c = routes[a][i];
+                    int removal = removalDelta(a, i);
+                    for (int b = 0; b < routes.length; b++) {
+                        if (b == a || length[b] >= capacities[b]) {
+                            continue;
+                        }
+                        for (int p = 0; p <= length[b]; p++) {
+                            if (insertionDelta(b, p, c) + removal < 0) {
+                                remove(a, i);
+                                insert(b, p, c);
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        private boolean exchange() {
+            for (int a = 0; a < routes.length; a++) {
+                for (int b = a + 1; b < routes.length; b++) {
+                    for (int i = 0; i < length[a]; i++) {
+                        for (int j = 0; j < length[b]; j++) {
+                            int ca = routes[a][i];
+                            int cb = routes[b][j];
+                            int delta = replaceDelta(a, i, cb) + replaceDelta(b, j, ca);
+                            if (delta < 0) {
+                                routes[a][i] = cb;
+                                routes[b][j] = ca;
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Route a keeps a[0..i) and takes b[j..); route b keeps b[0..j) and takes a[i..)
+         */
+        private boolean twoOptStar() {
+            for (int a = 0; a < routes.length; a++) {
+                for (int b = a + 1; b < routes.length; b++) {
+                    for (int i = 0; i <= length[a]; i++) {
+                        for (int j = 0; j <= length[b]; j++) {
+                            if ((i == 0 && j == 0) || (i == length[a] && j == length[b])) {
+                                continue;
+                            }
+                            int newA = i + length[b] - j;
+                            int newB = j + length[a] - i;
+                            if (newA > capacities[a] || newB > capacities[b]) {
+                                continue;
+                            }
+                            int delta = node(a, i - 1, b, j) + node(b, j - 1, a, i)
+                                    - node(a, i - 1, a, i) - node(b, j - 1, b, j);
+                            if (delta < 0) {
+                                swapTails(a, i, b, j);
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        private boolean reorderRoutes() {
+            boolean improved = false;
+            for (int v = 0; v < routes.length; v++) {
+                if (length[v] < 3) {
+                    continue;
+                }
+                int[] stops = new int[length[v]];
+                for (int i = 0; i < length[v]; i++) {
+                    stops[i] = locations[routes[v][i]];
+                }
+                int[] order = RoutePlanner.plan(map, DeliveryMap.DEPOT, stops);
+                if (RoutePlanner.tripSeconds(map, DeliveryMap.DEPOT, stops, order) < routeSeconds(v)) {
+                    int[] customers = Arrays.copyOf(routes[v], length[v]);
+                    for (int i = 0; i < order.length; i++) {
+                        routes[v][i] = customers[order[i]];
+                    }
+                    improved = true;
+                }
+            }
+            return improved;
+        }
+
+        // ============================================================
+        // COSTS AND EDITS
+        // ============================================================
+
+        private int travel(int c1, int c2) {
+            return map.travelSeconds(locations[c1], locations[c2]);
+        }
+
+        private int depot(int c) {
+            return map.travelSeconds(DeliveryMap.DEPOT, locations[c]);
+        }
+
+        /**
+         * Node at position i of route v; -1 and length[v] are the depot
+         */
+        private int nodeAt(int v, int i) {
+            return i < 0 || i >= length[v] ? DeliveryMap.DEPOT : locations[routes[v][i]];
+        }
+
+        /**
+         * Travel from position i of route v to position j of route w
+         */
+        private int node(int v, int i, int w, int j) {
+            return map.travelSeconds(nodeAt(v, i), nodeAt(w, j));
+        }
+
+        private int insertionDelta(int v, int p, int c) {
+            int before = nodeAt(v, p - 1);
+            int after = nodeAt(v, p);
+            int at = locations[c];
+            return map.travelSeconds(before, at) + map.travelSeconds(at, after) - map.travelSeconds(before, after);
+        }
+
+        private int removalDelta(int v, int i) {
+            int before = nodeAt(v, i - 1);
+            int after = nodeAt(v, i + 1);
+            int at = nodeAt(v, i);
+            return map.travelSeconds(before, after) - map.travelSeconds(before, at) - map.travelSeconds(at, after);
+        }
+
+        private int replaceDelta(int v, int i, int c) {
+            int before = nodeAt(v, i - 1);
+            int after = nodeAt(v, i + 1);
+            int old = nodeAt(v, i);
+            int at = locations[c];
+            return map.travelSeconds(before, at) + map.travelSeconds(at, after)
+                    - map.travelSeconds(before, old) - map.travelSeconds(old, after);
+        }
+
+        private void insert(int v, int p, int c) {
+            System.arraycopy(routes[v], p, routes[v], p + 1, length[v] - p);
+            routes[v][p] = c;
+            length[v]++;
+        }
+
+        private void remove(int v, int i) {
+            System.arraycopy(routes[v], i + 1, routes[v], i, length[v] - i - 1);
+            length[v]--;
+        }
+
+        private void swapTails(int a, int i, int b, int j) {
+            int[] tailA = Arrays.copyOfRange(routes[a], i, length[a]);
+            int[] tailB = Arrays.copyOfRange(routes[b], j, length[b]);
+            System.arraycopy(tailB, 0, routes[a], i, tailB.length);
+            System.arraycopy(tailA, 0, routes[b], j, tailA.length);
+            length[a] = i + tailB.length;
+            length[b] = j + tailA.length;
+        }
+
+        int routeSeconds(int v) {
+            int seconds = 0;
+            for (int i = 0; i <= length[v] && length[v] > 0; i++) {
+                seconds += node(v, i - 1, v, i);
+            }
+            return seconds;
+        }
+
+        Solution toSolution() {
+            int[][] result = new int[routes.length][];
+            int travelSeconds = 0;
+            for (int v = 0; v < routes.length; v++) {
+                result[v] = Arrays.copyOf(routes[v], length[v]);
+                travelSeconds += routeSeconds(v);
+            }
+            int[] left = unassigned.stream().mapToInt(Integer::intValue).toArray();
+            return new Solution(result, left, travelSeconds);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package testCase_3;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AuctionBenchmark.java
+ *
+ * One auction round over the whole package backlog:
+ * - bidding: every agent scores every package (DeliveryAgent.calculateBid)
+ * - winnerSelection: every auction sorts its bids (BidInfo.compareTo +
+ *   Collections.sort) and picks the best agent with a free slot
+ *   (MasterAgent.selectWinner)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuctionBenchmark {
+
+    @Param({"7", "100", "1000"})
+    int agentCount;
+
+    @Param({"12", "200"})
+    int packageBacklog;
+
+    private int[] priorities;
+    private int[] freeSlots;
+    private int[] timeToMaster;
+    private int[] urgency;
+
+    // One bid list per auction in the backlog, best-first order not yet applied
+    private List<List<MasterAgent.BidInfo>> auctionBids;
+    private Map<String, Integer> slotsLeft;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+
+        priorities = new int[agentCount];
+        freeSlots = new int[agentCount];
+        timeToMaster = new int[agentCount];
+        slotsLeft = new HashMap<>();
+        for (int a = 0; a < agentCount; a++) {
+            priorities[a] = 1 + random.nextInt(5);
+            freeSlots[a] = random.nextInt(4);
+            timeToMaster[a] = random.nextInt(3) == 0 ? random.nextInt(20) : 0;
+            if (freeSlots[a] > 0) {
+                slotsLeft.put("Agent" + a, freeSlots[a]);
+            }
+        }
+
+        urgency = new int[packageBacklog];
+        auctionBids = new ArrayList<>(packageBacklog);
+        long now = System.currentTimeMillis();
+        for (int p = 0; p < packageBacklog; p++) {
+            urgency[p] = 1 + random.nextInt(100);
+            List<MasterAgent.BidInfo> bids = new ArrayList<>(agentCount);
+            for (int a = 0; a < agentCount; a++) {
+                int score = DeliveryAgent.calculateBid(priorities[a], freeSlots[a], timeToMaster[a], urgency[p]);
+                bids.add(new MasterAgent.BidInfo("Agent" + a, score, priorities[a], now + random.nextInt(2000)));
+            }
+            auctionBids.add(bids);
+        }
+    }
+
+    @Benchmark
+    public void bidding(Blackhole blackhole) {
+        for (int p = 0; p < packageBacklog; p++) {
+            for (int a = 0; a < agentCount; a++) {
+                blackhole.consume(DeliveryAgent.calculateBid(priorities[a], freeSlots[a], timeToMaster[a], urgency[p]));
+            }
+        }
+    }
+
+    @Benchmark
+    public void winnerSelection(Blackhole blackhole) {
+        for (List<MasterAgent.BidInfo> bids : auctionBids) {
+            // selectWinner sorts in place; copy so every invocation sorts the same input
+            blackhole.consume(MasterAgent.selectWinner(new ArrayList<>(bids), slotsLeft));
+        }
+    }
+}
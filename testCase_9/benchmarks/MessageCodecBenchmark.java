@@ -0,0 +1,101 @@
+package testCase_3;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MessageCodecBenchmark.java
+ *
+ * Message content encoding and parsing: the colon-delimited text format
+ * (-Dvrp.codec=text) against the binary format, for a single Bid and for
+ * a batch CFP carrying the whole package backlog.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageCodecBenchmark {
+
+    @Param({"12", "200"})
+    int packageBacklog;
+
+    private AgentMessage.Bid bid;
+    private AgentMessage.CfpBundle cfpBundle;
+
+    private String bidText;
+    private String cfpBundleText;
+    private byte[] bidBytes;
+    private byte[] cfpBundleBytes;
+
+    @Setup
+    public void setUp() {
+        bid = new AgentMessage.Bid("P42", 137, 3, System.currentTimeMillis());
+
+        List<AgentMessage.Cfp> packages = new ArrayList<>(packageBacklog);
+        for (int p = 0; p < packageBacklog; p++) {
+            packages.add(new AgentMessage.Cfp("P" + p, 5 + p % 20, p % 3 == 0 ? "Express" : "Standard", p % 100,
+                    1 + p % 200));
+        }
+        cfpBundle = new AgentMessage.CfpBundle(packages);
+
+        bidText = MessageCodec.encodeText(bid);
+        cfpBundleText = MessageCodec.encodeText(cfpBundle);
+        bidBytes = MessageCodec.encode(bid);
+        cfpBundleBytes = MessageCodec.encode(cfpBundle);
+    }
+
+    @Benchmark
+    public String encodeBidText() {
+        return MessageCodec.encodeText(bid);
+    }
+
+    @Benchmark
+    public AgentMessage decodeBidText() {
+        return MessageCodec.decodeText(bidText, AgentMessage.Bid.class, "Agent1");
+    }
+
+    @Benchmark
+    public byte[] encodeBidBinary() {
+        return MessageCodec.encode(bid);
+    }
+
+    @Benchmark
+    public AgentMessage decodeBidBinary() {
+        return MessageCodec.decode(bidBytes);
+    }
+
+    @Benchmark
+    public String encodeCfpBundleText() {
+        return MessageCodec.encodeText(cfpBundle);
+    }
+
+    @Benchmark
+    public AgentMessage decodeCfpBundleText() {
+        return MessageCodec.decodeText(cfpBundleText, AgentMessage.CfpBundle.class, "MasterAgent");
+    }
+
+    @Benchmark
+    public byte[] encodeCfpBundleBinary() {
+        return MessageCodec.encode(cfpBundle);
+    }
+
+    @Benchmark
+    public AgentMessage decodeCfpBundleBinary() {
+        return MessageCodec.decode(cfpBundleBytes);
+    }
+}
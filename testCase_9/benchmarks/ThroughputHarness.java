@@ -0,0 +1,263 @@
+package testCase_3;
+
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.core.Runtime;
+import jade.lang.acl.ACLMessage;
+import jade.wrapper.AgentContainer;
+import jade.wrapper.AgentController;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ThroughputHarness.java
+ *
+ * End-to-end throughput of the whole system: boots a JADE main container
+ * in this JVM (no GUI), starts the MasterAgent and N DeliveryAgents, feeds
+ * the Master a Poisson package arrival stream and reports after the run:
+ * - packages assigned per second
+ * - auction latency percentiles (CFP sent -> winners selected)
+ * - trade success rate (accepted / reported trades)
+ * - ACL messages taken from the agents' queues, by performative
+ *
+ * The Master is started with "initialPackages=0" and "regeneration=off", so
+ * every package comes from the arrival stream. Counters are reset after the
+ * warm-up. Defaults: -Dvrp.clock=discrete, -Dvrp.latency=production and
+ * -Dvrp.log.level=WARN (each can be overridden on the command line).
+ *
+ * Usage:
+ * java testCase_3.ThroughputHarness --agents 50 --arrival-rate 200 --warmup 10 --duration 60 --seed 42
+ */
+public class ThroughputHarness {
+
+    private static final long TICK_MS = 100;
+
+    public static void main(String[] args) throws Exception {
+        int agents = 7;
+        double arrivalRate = 20;
+        int warmupSeconds = 5;
+        int durationSeconds = 30;
+        long seed = 42;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--agents":
+                    agents = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--arrival-rate":
+                    arrivalRate = Double.parseDouble(args[i + 1]);
+                    break;
+                case "--warmup":
+                    warmupSeconds = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--duration":
+                    durationSeconds = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[i + 1]);
+                    break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        setDefault("vrp.clock", "discrete");
+        setDefault("vrp.latency", "production");
+        setDefault("vrp.log.level", "WARN");
+
+        HarnessListener listener = new HarnessListener();
+        MasterAgent.events = listener;
+
+        Runtime runtime = Runtime.instance();
+        runtime.setCloseVM(false);
+        Profile profile = new ProfileImpl();
+        profile.setParameter(Profile.GUI, "false");
+        AgentContainer container = runtime.createMainContainer(profile);
+
+        AgentController master = container.createNewAgent("MasterAgent", MasterAgent.class.getName(),
+                new Object[]{"headless", "initialPackages=0", "regeneration=off"});
+        master.start();
+        for (int i = 1; i <= agents; i++) {
+            container.createNewAgent("Agent" + i, DeliveryAgent.class.getName(), new Object[0]).start();
+        }
+
+        System.out.println("Agents: " + agents + ", arrival rate: " + arrivalRate + " packages/s, warm-up: "
+                + warmupSeconds + "s, measured: " + durationSeconds + "s");
+
+        ScheduledExecutorService injector = Executors.newSingleThreadScheduledExecutor();
+        Random random = new Random(seed);
+        double arrivalsPerTick = arrivalRate * TICK_MS / 1000.0;
+        injector.scheduleAtFixedRate(() -> {
+            int count = poisson(random, arrivalsPerTick);
+            if (count > 0) {
+                try {
+                    master.putO2AObject(new MasterAgent.PackageArrival(count), false);
+                    listener.injected.add(count);
+                } catch (Exception e) {
+                    System.err.println("Package injection failed: " + e.getMessage());
+                }
+            }
+        }, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(warmupSeconds));
+        listener.reset();
+        long start = System.nanoTime();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        injector.shutdownNow();
+        listener.report(elapsed);
+
+        try {
+            container.kill();
+        } catch (Exception e) {
+            System.err.println("Container shutdown failed: " + e.getMessage());
+        }
+        System.exit(0);
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    /**
+     * Knuth's method, fine for the small means of a 100ms tick
+     */
+    private static int poisson(Random random, double mean) {
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            count++;
+            product *= random.nextDouble();
+        }
+        return count;
+    }
+
+    /**
+     * Counts what the agents report; called concurrently from agent and
+     * clock threads
+     */
+    private static class HarnessListener implements DeliveryEventListener {
+
+        private static final int PERFORMATIVES = 32;
+
+        final LongAdder injected = new LongAdder();
+        private final LongAdder assigned = new LongAdder();
+        private final LongAdder auctions = new LongAdder();
+        private final LongAdder failedAuctions = new LongAdder();
+        private final LongAdder tradesAccepted = new LongAdder();
+        private final LongAdder tradesRefused = new LongAdder();
+        private final AtomicLongArray messages = new AtomicLongArray(PERFORMATIVES);
+
+        private final Map<String, Long> auctionStarts = new ConcurrentHashMap<>();
+        private final List<Long> auctionLatencies = new ArrayList<>();
+
+        @Override
+        public void onAuctionStarted(String auctionId, int packages) {
+            auctionStarts.put(auctionId, System.nanoTime());
+        }
+
+        @Override
+        public void onAuctionClosed(String auctionId, int awarded) {
+            Long started = auctionStarts.remove(auctionId);
+            if (started != null) {
+                synchronized (auctionLatencies) {
+                    auctionLatencies.add(System.nanoTime() - started);
+                }
+            }
+            auctions.increment();
+            if (awarded == 0) {
+                failedAuctions.increment();
+            }
+        }
+
+        @Override
+        public void onPackageAssigned(String packageName) {
+            assigned.increment();
+        }
+
+        @Override
+        public void onTradeResult(String packageName, String carrier, String requester, boolean accepted) {
+            (accepted ? tradesAccepted : tradesRefused).increment();
+        }
+
+        @Override
+        public void onAclMessage(String agentName, int performative) {
+            if (performative >= 0 && performative < PERFORMATIVES) {
+                messages.incrementAndGet(performative);
+            }
+        }
+
+        /**
+         * End of the warm-up; auctions still open keep their start time
+         */
+        void reset() {
+            injected.reset();
+            assigned.reset();
+            auctions.reset();
+            failedAuctions.reset();
+            tradesAccepted.reset();
+            tradesRefused.reset();
+            for (int i = 0; i < PERFORMATIVES; i++) {
+                messages.set(i, 0);
+            }
+            synchronized (auctionLatencies) {
+                auctionLatencies.clear();
+            }
+        }
+
+        void report(double seconds) {
+            long[] latencies;
+            synchronized (auctionLatencies) {
+                latencies = auctionLatencies.stream().mapToLong(Long::longValue).toArray();
+            }
+            Arrays.sort(latencies);
+
+            long trades = tradesAccepted.sum() + tradesRefused.sum();
+            long totalMessages = 0;
+            for (int i = 0; i < PERFORMATIVES; i++) {
+                totalMessages += messages.get(i);
+            }
+
+            System.out.println("=============================================================");
+            System.out.printf("Packages injected:   %d%n", injected.sum());
+            System.out.printf("Packages assigned:   %d (%.1f/s)%n", assigned.sum(), assigned.sum() / seconds);
+            System.out.printf("Auctions closed:     %d (%d without winner)%n", auctions.sum(), failedAuctions.sum());
+            System.out.printf("Auction latency ms:  p50 %.1f, p90 %.1f, p99 %.1f, max %.1f%n",
+                    percentile(latencies, 0.50), percentile(latencies, 0.90),
+                    percentile(latencies, 0.99), percentile(latencies, 1.0));
+            System.out.printf("Trades:              %d accepted, %d refused (%.1f%% success)%n",
+                    tradesAccepted.sum(), tradesRefused.sum(),
+                    trades == 0 ? 0.0 : 100.0 * tradesAccepted.sum() / trades);
+            System.out.printf("ACL messages:        %d (%.1f/s)%n", totalMessages, totalMessages / seconds);
+            for (int i = 0; i < PERFORMATIVES; i++) {
+                if (messages.get(i) > 0) {
+                    System.out.printf("  %-18s %d%n", ACLMessage.getPerformative(i), messages.get(i));
+                }
+            }
+            System.out.println("=============================================================");
+        }
+
+        private static double percentile(long[] sorted, double fraction) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(fraction * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package testCase_3;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TradeMatchingBenchmark.java
+ *
+ * MasterAgent.handleTradeQuery matching: TradeIndex lookups for a requester
+ * against every package in delivery, spread over agentCount carriers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TradeMatchingBenchmark {
+
+    private static final int TOP_K = 3;
+    private static final int QUERIES = 64;
+
+    @Param({"7", "100", "1000"})
+    int agentCount;
+
+    @Param({"12", "200", "2000"})
+    int packageBacklog;
+
+    private TradeIndex index;
+    private String[] requesters;
+    private int[] requesterPriorities;
+    private int[] requesterLoads;
+    private long now;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int[] priorities = new int[agentCount];
+        for (int a = 0; a < agentCount; a++) {
+            priorities[a] = 1 + random.nextInt(5);
+        }
+
+        index = new TradeIndex();
+        now = 0;
+        for (int p = 0; p < packageBacklog; p++) {
+            int carrier = random.nextInt(agentCount);
+            index.add("P" + p, "Agent" + carrier, priorities[carrier], now + 1000L * (1 + random.nextInt(60)));
+        }
+        for (int a = 0; a < agentCount; a++) {
+            for (int t = random.nextInt(4); t > 0; t--) {
+                if (random.nextBoolean()) {
+                    index.recordTradeAccepted("Agent" + a);
+                } else {
+                    index.recordTradeRefused("Agent" + a);
+                }
+            }
+        }
+
+        requesters = new String[QUERIES];
+        requesterPriorities = new int[QUERIES];
+        requesterLoads = new int[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            int a = random.nextInt(agentCount);
+            requesters[q] = "Agent" + a;
+            requesterPriorities[q] = priorities[a];
+            requesterLoads[q] = index.loadOf(requesters[q]);
+        }
+    }
+
+    /**
+     * What the Master sends back: the TOP_K best opportunities
+     */
+    @Benchmark
+    public List<TradeIndex.Opportunity> rankOpportunities() {
+        int q = next++ & (QUERIES - 1);
+        return index.rankOpportunities(requesters[q], requesterPriorities[q], requesterLoads[q], now, TOP_K);
+    }
+
+    /**
+     * Every match, unranked
+     */
+    @Benchmark
+    public List<TradeIndex.Opportunity> findOpportunities() {
+        int q = next++ & (QUERIES - 1);
+        return index.findOpportunities(requesters[q], requesterPriorities[q], requesterLoads[q], now);
+    }
+}